@@ -0,0 +1,51 @@
+package com.slidesage.slidesage_backend.admission;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/admission}: current limits and admitted/rejected counters per endpoint.
+ * {@code POST /actuator/admission/{endpoint}} changes limits at runtime; omitted fields keep their value,
+ * and an unknown endpoint or a non-positive limit is a 400.
+ */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+    private final AdmissionService admissionService;
+
+    public AdmissionEndpoint(AdmissionService admissionService) {
+        this.admissionService = admissionService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        return admissionService.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Selector String endpoint,
+                                      @Nullable Integer perUserBurst,
+                                      @Nullable Double perUserPerMinute,
+                                      @Nullable Integer maxConcurrent) {
+        try {
+            AdmissionService.Endpoint target = AdmissionService.Endpoint.valueOf(endpoint.toUpperCase());
+            AdmissionService.Limits current = admissionService.limits(target);
+
+            admissionService.updateLimits(target, new AdmissionService.Limits(
+                    perUserBurst != null ? perUserBurst : current.perUserBurst(),
+                    perUserPerMinute != null ? perUserPerMinute : current.perUserPerMinute(),
+                    maxConcurrent != null ? maxConcurrent : current.maxConcurrent()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return admissionService.snapshot();
+    }
+}
@@ -0,0 +1,22 @@
+package com.slidesage.slidesage_backend.admission;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A request shed by admission control: 429 when the caller is over their rate,
+ * 503 when the service is at its concurrency limit.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, long retryAfterSeconds, String msg) {
+        super(msg, null, false, false);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() { return status; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,204 @@
+package com.slidesage.slidesage_backend.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the expensive endpoints: a per-user token bucket (429 when empty) and a
+ * global in-flight limit (503 when full). Nothing is queued; rejected callers get a Retry-After.
+ * Limits can be changed at runtime through the {@code admission} actuator endpoint.
+ * <p>
+ * Every running export holds a pooled connection for its whole download, so the EXPORT in-flight cap
+ * must stay below the connection pool size; that is checked at startup and on every change.
+ */
+@Component
+public class AdmissionService {
+
+    public enum Endpoint { UPLOAD, SUMMARY, EXPORT }
+
+    /** Per-user burst and sustained rate, plus the global in-flight cap. */
+    public record Limits(int perUserBurst, double perUserPerMinute, int maxConcurrent) {}
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int SWEEP_EVERY = 1024;
+
+    private final Map<Endpoint, Gate> gates = new EnumMap<>(Endpoint.class);
+    private final DataSource dataSource;
+
+    public AdmissionService(MeterRegistry meterRegistry, DataSource dataSource,
+                            @Value("${admission.upload.per-user-burst:5}") int uploadBurst,
+                            @Value("${admission.upload.per-user-per-minute:10}") double uploadPerMinute,
+                            @Value("${admission.upload.max-concurrent:8}") int uploadConcurrent,
+                            @Value("${admission.summary.per-user-burst:3}") int summaryBurst,
+                            @Value("${admission.summary.per-user-per-minute:6}") double summaryPerMinute,
+                            @Value("${admission.summary.max-concurrent:8}") int summaryConcurrent,
+                            @Value("${admission.export.per-user-burst:1}") int exportBurst,
+                            @Value("${admission.export.per-user-per-minute:2}") double exportPerMinute,
+                            @Value("${admission.export.max-concurrent:4}") int exportConcurrent) throws SQLException {
+        this.dataSource = dataSource;
+        int poolSize = poolSize();
+        if (exportConcurrent >= poolSize) {
+            throw new IllegalStateException("admission.export.max-concurrent (" + exportConcurrent
+                    + ") must be below the connection pool size (" + poolSize + ")");
+        }
+        gates.put(Endpoint.UPLOAD, new Gate(Endpoint.UPLOAD, new Limits(uploadBurst, uploadPerMinute, uploadConcurrent), meterRegistry));
+        gates.put(Endpoint.SUMMARY, new Gate(Endpoint.SUMMARY, new Limits(summaryBurst, summaryPerMinute, summaryConcurrent), meterRegistry));
+        gates.put(Endpoint.EXPORT, new Gate(Endpoint.EXPORT, new Limits(exportBurst, exportPerMinute, exportConcurrent), meterRegistry));
+    }
+
+    /**
+     * Admits the call or throws {@link AdmissionRejectedException}. The returned permit must be closed
+     * when the request finishes.
+     */
+    public Permit admit(Endpoint endpoint, UUID userId) {
+        return gates.get(endpoint).admit(userId);
+    }
+
+    public Limits limits(Endpoint endpoint) {
+        return gates.get(endpoint).limits;
+    }
+
+    public void updateLimits(Endpoint endpoint, Limits limits) {
+        if (limits.perUserBurst() <= 0 || limits.perUserPerMinute() <= 0 || limits.maxConcurrent() <= 0) {
+            throw new IllegalArgumentException("Admission limits must be positive: " + limits);
+        }
+        if (endpoint == Endpoint.EXPORT) {
+            int poolSize;
+            try {
+                poolSize = poolSize();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot read the connection pool size", e);
+            }
+            if (limits.maxConcurrent() >= poolSize) {
+                throw new IllegalArgumentException("EXPORT maxConcurrent (" + limits.maxConcurrent()
+                        + ") must be below the connection pool size (" + poolSize + ")");
+            }
+        }
+        gates.get(endpoint).update(limits);
+    }
+
+    // Read on every check, since the pool can be resized at runtime; unbounded for a non-Hikari pool
+    private int poolSize() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) return Integer.MAX_VALUE;
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        gates.forEach((endpoint, gate) -> out.put(endpoint.name().toLowerCase(), gate.snapshot()));
+        return out;
+    }
+
+    /** Releases the in-flight slot exactly once. */
+    public static final class Permit implements AutoCloseable {
+        private final AtomicInteger inFlight;
+        private boolean released;
+
+        private Permit(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Gate {
+        private final Endpoint endpoint;
+        private volatile Limits limits;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<UUID, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong calls = new AtomicLong();
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter overloaded;
+
+        Gate(Endpoint endpoint, Limits limits, MeterRegistry registry) {
+            this.endpoint = endpoint;
+            this.limits = limits;
+            String name = endpoint.name().toLowerCase();
+            this.admitted = counter(registry, name, "admitted");
+            this.rateLimited = counter(registry, name, "rate_limited");
+            this.overloaded = counter(registry, name, "overloaded");
+            Gauge.builder("admission.in_flight", inFlight, AtomicInteger::get).tag("endpoint", name).register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, String endpoint, String outcome) {
+            return Counter.builder("admission.requests")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+
+        Permit admit(UUID userId) {
+            if (calls.incrementAndGet() % SWEEP_EVERY == 0) sweepIdleBuckets();
+            Limits current = limits;
+
+            // Reserve a global slot first so a shed request doesn't also burn the user's token
+            if (inFlight.incrementAndGet() > current.maxConcurrent()) {
+                inFlight.decrementAndGet();
+                overloaded.increment();
+                throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, 1,
+                        "Server is busy, please retry shortly.");
+            }
+
+            long waitNanos = buckets
+                    .computeIfAbsent(userId, id -> new TokenBucket(current.perUserBurst(), current.perUserPerMinute() / 60.0))
+                    .tryAcquire();
+            if (waitNanos > 0) {
+                inFlight.decrementAndGet();
+                rateLimited.increment();
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+                throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                        "Too many " + endpoint.name().toLowerCase() + " requests, please slow down.");
+            }
+
+            admitted.increment();
+            return new Permit(inFlight);
+        }
+
+        void update(Limits next) {
+            limits = next;
+            buckets.values().forEach(b -> b.reconfigure(next.perUserBurst(), next.perUserPerMinute() / 60.0));
+        }
+
+        private void sweepIdleBuckets() {
+            long now = System.nanoTime();
+            buckets.values().removeIf(b -> now - b.lastUsedNanos() > IDLE_BUCKET_NANOS);
+        }
+
+        Map<String, Object> snapshot() {
+            Limits current = limits;
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("perUserBurst", current.perUserBurst());
+            out.put("perUserPerMinute", current.perUserPerMinute());
+            out.put("maxConcurrent", current.maxConcurrent());
+            out.put("inFlight", inFlight.get());
+            out.put("trackedUsers", buckets.size());
+            out.put("admitted", (long) admitted.count());
+            out.put("rateLimited", (long) rateLimited.count());
+            out.put("overloaded", (long) overloaded.count());
+            return out;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.slidesage.slidesage_backend.admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket refilled continuously at {@code ratePerSecond} up to {@code capacity}.
+ * Never blocks: a caller either takes a token or learns how long until the next one.
+ */
+public class TokenBucket {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double capacity;
+    private double ratePerNano;
+    private double tokens;
+    private long lastRefill;
+    private volatile long lastUsed;
+
+    public TokenBucket(double capacity, double ratePerSecond) {
+        this.capacity = capacity;
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.lastUsed = lastRefill;
+    }
+
+    /** Takes one token; returns 0 on success, otherwise the nanos until a token will be available. */
+    public long tryAcquire() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            lastUsed = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return ratePerNano <= 0 ? Long.MAX_VALUE : (long) Math.ceil((1 - tokens) / ratePerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void reconfigure(double capacity, double ratePerSecond) {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            this.capacity = capacity;
+            this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+            this.tokens = Math.min(tokens, capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastUsedNanos() {
+        return lastUsed;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
@@ -46,9 +46,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             var userOpt = userRepository.findByEmail(email);
 
             if (userOpt.isPresent() && jwtUtil.validateToken(token, email)) {
+                // The role column is set out of band, so ADMIN can't be obtained by registering
+                String[] authorities = userOpt.get().getRole() == Role.ADMIN
+                        ? new String[]{"USER", "ADMIN"}
+                        : new String[]{"USER"};
                 UserDetails userDetails = User.withUsername(email)
                         .password("") // password not needed for JWT
-                        .authorities("USER")
+                        .authorities(authorities)
                         .build();
 
                 UsernamePasswordAuthenticationToken authToken =
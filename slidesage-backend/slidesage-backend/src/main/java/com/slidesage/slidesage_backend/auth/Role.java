@@ -0,0 +1,4 @@
+package com.slidesage.slidesage_backend.auth;
+
+/** What an account may do; ADMIN adds the management endpoints under {@code /actuator}. */
+public enum Role { USER, ADMIN }
@@ -1,6 +1,7 @@
 package com.slidesage.slidesage_backend.auth;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.UUID;
 
 @Entity
@@ -16,6 +17,12 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Only ever changed in the database by an operator; registration always creates USER
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'USER'")
+    @Column(nullable = false)
+    private Role role = Role.USER;
+
     // constructors, getters, setters
     public User() {}
 
@@ -29,4 +36,5 @@ public class User {
     public void setEmail(String email) { this.email = email; }
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
+    public Role getRole() { return role; }
 }
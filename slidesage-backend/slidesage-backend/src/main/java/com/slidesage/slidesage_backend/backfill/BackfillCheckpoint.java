@@ -0,0 +1,86 @@
+package com.slidesage.slidesage_backend.backfill;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a backfill run, committed together with each batch so a restart resumes
+ * after the last fully written key instead of starting over.
+ * <p>
+ * {@code owner}/{@code leaseUntil} say which instance is running the job. They are only written by
+ * the lease queries in {@link BackfillCheckpointRepository}, so saving progress never clobbers them.
+ */
+@Entity
+@Table(name = "backfill_checkpoints")
+public class BackfillCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String job;
+
+    @Column(nullable = false)
+    private int targetVersion;
+
+    @Column(nullable = false)
+    private UUID lastFileId;
+
+    private long processed;
+    private long failed;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    @Column(length = 128, insertable = false, updatable = false)
+    private String owner;
+
+    @Column(insertable = false, updatable = false)
+    private Instant leaseUntil;
+
+    public BackfillCheckpoint() {}
+
+    public BackfillCheckpoint(String job, int targetVersion, UUID lastFileId) {
+        this.job = job;
+        this.targetVersion = targetVersion;
+        this.lastFileId = lastFileId;
+        this.startedAt = Instant.now();
+        this.updatedAt = startedAt;
+    }
+
+    public String getJob() { return job; }
+
+    public int getTargetVersion() { return targetVersion; }
+
+    /** Starts over for {@code targetVersion} from {@code firstKey}, keeping the row (and its lease). */
+    public void restart(int targetVersion, UUID firstKey) {
+        this.targetVersion = targetVersion;
+        this.lastFileId = firstKey;
+        this.processed = 0;
+        this.failed = 0;
+        this.startedAt = Instant.now();
+        this.updatedAt = startedAt;
+        this.completedAt = null;
+    }
+
+    public UUID getLastFileId() { return lastFileId; }
+    public void setLastFileId(UUID lastFileId) { this.lastFileId = lastFileId; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public Instant getStartedAt() { return startedAt; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+
+    public String getOwner() { return owner; }
+
+    public Instant getLeaseUntil() { return leaseUntil; }
+}
@@ -0,0 +1,38 @@
+package com.slidesage.slidesage_backend.backfill;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpoint, String> {
+
+    // --- Lease (one instance runs a job; the others see 0 rows updated) ---
+
+    // Takes a free or expired lease, or extends our own
+    @Transactional
+    @Modifying
+    @Query("""
+            update BackfillCheckpoint c set c.owner = :owner, c.leaseUntil = :until
+             where c.job = :job
+               and (c.owner is null or c.owner = :owner or c.leaseUntil < :now)""")
+    int claimLease(@Param("job") String job, @Param("owner") String owner,
+                   @Param("now") Instant now, @Param("until") Instant until);
+
+    // Extends only a lease we still hold; 0 means another instance has taken the job over
+    @Transactional
+    @Modifying
+    @Query("""
+            update BackfillCheckpoint c set c.leaseUntil = :until
+             where c.job = :job and c.owner = :owner and c.leaseUntil >= :now""")
+    int renewLease(@Param("job") String job, @Param("owner") String owner,
+                   @Param("now") Instant now, @Param("until") Instant until);
+
+    @Transactional
+    @Modifying
+    @Query("update BackfillCheckpoint c set c.owner = null, c.leaseUntil = null where c.job = :job and c.owner = :owner")
+    int releaseLease(@Param("job") String job, @Param("owner") String owner);
+}
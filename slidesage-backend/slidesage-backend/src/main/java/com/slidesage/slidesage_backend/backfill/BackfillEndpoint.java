@@ -0,0 +1,42 @@
+package com.slidesage.slidesage_backend.backfill;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/backfill}: progress of the extraction backfill.
+ * {@code POST /actuator/backfill} with {@code action} {@code start} or {@code stop}, optionally
+ * {@code filesPerSecond} to change the throughput cap of a running job.
+ */
+@Component
+@Endpoint(id = "backfill")
+public class BackfillEndpoint {
+
+    private final ExtractionBackfill backfill;
+
+    public BackfillEndpoint(ExtractionBackfill backfill) {
+        this.backfill = backfill;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return backfill.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> control(@Nullable String action, @Nullable Double filesPerSecond) {
+        if (filesPerSecond != null && filesPerSecond <= 0) {
+            throw new InvalidEndpointRequestException("filesPerSecond must be positive", "filesPerSecond must be positive");
+        }
+        if (filesPerSecond != null) backfill.setFilesPerSecond(filesPerSecond);
+        if ("start".equalsIgnoreCase(action)) backfill.start();
+        if ("stop".equalsIgnoreCase(action)) backfill.stop();
+        return backfill.status();
+    }
+}
@@ -0,0 +1,311 @@
+package com.slidesage.slidesage_backend.backfill;
+
+import com.slidesage.slidesage_backend.admission.TokenBucket;
+import com.slidesage.slidesage_backend.events.FileEvent;
+import com.slidesage.slidesage_backend.files.FileKeyProjection;
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.FileVersions;
+import com.slidesage.slidesage_backend.files.PdfTextExtractor;
+import com.slidesage.slidesage_backend.files.TextStatus;
+import com.slidesage.slidesage_backend.retrieval.UserIndexStore;
+import com.slidesage.slidesage_backend.storage.FileBlobs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Re-extracts every file whose {@code extractorVersion} is older than {@link PdfTextExtractor#VERSION}.
+ * <p>
+ * Walks {@code files} in primary-key order by keyset cursor, re-extracts each batch on a small pool
+ * under a files-per-second cap, and writes the batch and its checkpoint in one transaction. A restart
+ * (or {@code backfill.enabled=true} on startup) resumes after the last committed key. Files that fail
+ * keep their old text and are counted, not retried, within a run.
+ * <p>
+ * Only one instance runs the job: it holds a lease on the checkpoint row, renewed with every batch
+ * and released when it stops. Other instances find the lease taken and don't start; if the holder
+ * dies, the lease expires after {@code backfill.lease-seconds} and a new start takes over from the
+ * checkpoint. Controlled through the {@code backfill} actuator endpoint.
+ */
+@Component
+public class ExtractionBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionBackfill.class);
+
+    static final String JOB = "extraction";
+    // Smallest uuid in Postgres ordering, so the first page needs no special case
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+
+    private final FileRepository fileRepository;
+    private final FileBlobs fileBlobs;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final PdfTextExtractor textExtractor;
+    private final UserIndexStore indexStore;
+    private final FileVersions fileVersions;
+    private final TransactionTemplate tx;
+
+    private final boolean resumeOnStartup;
+    private final int batchSize;
+    private final int parallelism;
+    private final TokenBucket throughput;
+    private final Duration lease;
+    // Lease holder name: readable in the checkpoint row, unique per JVM
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+    private volatile BackfillCheckpoint current;
+    private volatile String lastError;
+
+    private final Counter updated;
+    private final Counter failed;
+
+    public ExtractionBackfill(FileRepository fileRepository,
+                              FileBlobs fileBlobs,
+                              BackfillCheckpointRepository checkpointRepository,
+                              PdfTextExtractor textExtractor,
+                              UserIndexStore indexStore,
+                              FileVersions fileVersions,
+                              TransactionTemplate tx,
+                              MeterRegistry meterRegistry,
+                              @Value("${backfill.enabled:false}") boolean resumeOnStartup,
+                              @Value("${backfill.batch-size:100}") int batchSize,
+                              @Value("${backfill.parallelism:4}") int parallelism,
+                              @Value("${backfill.files-per-second:10}") double filesPerSecond,
+                              @Value("${backfill.lease-seconds:120}") long leaseSeconds) {
+        this.fileRepository = fileRepository;
+        this.fileBlobs = fileBlobs;
+        this.checkpointRepository = checkpointRepository;
+        this.textExtractor = textExtractor;
+        this.indexStore = indexStore;
+        this.fileVersions = fileVersions;
+        this.tx = tx;
+        this.resumeOnStartup = resumeOnStartup;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.throughput = new TokenBucket(Math.max(1, filesPerSecond), filesPerSecond);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.updated = Counter.builder("backfill.files").tag("outcome", "updated").register(meterRegistry);
+        this.failed = Counter.builder("backfill.files").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (resumeOnStartup) start();
+    }
+
+    /** Starts (or resumes) the backfill in the background; false if it is already running here. */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        stopRequested = false;
+        lastError = null;
+        Thread.ofPlatform().name("extraction-backfill").daemon().start(this::run);
+        return true;
+    }
+
+    /** Stops after the current batch is committed; the checkpoint stays for the next start. */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public void setFilesPerSecond(double filesPerSecond) {
+        throughput.reconfigure(Math.max(1, filesPerSecond), filesPerSecond);
+    }
+
+    public Map<String, Object> status() {
+        BackfillCheckpoint cp = current != null ? current : checkpointRepository.findById(JOB).orElse(null);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("running", running.get());
+        out.put("targetVersion", PdfTextExtractor.VERSION);
+        if (cp != null) {
+            out.put("checkpointVersion", cp.getTargetVersion());
+            out.put("lastFileId", cp.getLastFileId());
+            out.put("processed", cp.getProcessed());
+            out.put("failed", cp.getFailed());
+            out.put("startedAt", cp.getStartedAt());
+            out.put("updatedAt", cp.getUpdatedAt());
+            out.put("completedAt", cp.getCompletedAt());
+            out.put("leaseOwner", cp.getOwner());
+            out.put("leaseUntil", cp.getLeaseUntil());
+        }
+        if (lastError != null) out.put("error", lastError);
+        return out;
+    }
+
+    private void run() {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("backfill-", 0).daemon().factory());
+        boolean leased = false;
+        try {
+            leased = acquireLease();
+            if (!leased) {
+                lastError = "Running on another instance";
+                log.info("Extraction backfill not started: the lease is held by another instance");
+                return;
+            }
+
+            BackfillCheckpoint cp = loadCheckpoint();
+            current = cp;
+            log.info("Extraction backfill to version {} starting after {}", cp.getTargetVersion(), cp.getLastFileId());
+
+            while (!stopRequested) {
+                renewLease();
+                List<FileKeyProjection> batch = fileRepository.findStaleExtractionsAfter(
+                        cp.getLastFileId(), cp.getTargetVersion(), Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    cp.setCompletedAt(Instant.now());
+                    current = cp = checkpointRepository.save(cp);
+                    log.info("Extraction backfill finished: {} updated, {} failed", cp.getProcessed(), cp.getFailed());
+                    break;
+                }
+
+                List<Result> results = extractAll(pool, batch);
+                current = cp = writeBatch(cp, batch.get(batch.size() - 1).getId(), results);
+                publish(results);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Extraction backfill stopped", e);
+        } finally {
+            pool.shutdownNow();
+            if (leased) releaseLease();
+            running.set(false);
+        }
+    }
+
+    private boolean acquireLease() {
+        if (!checkpointRepository.existsById(JOB)) {
+            try {
+                checkpointRepository.save(new BackfillCheckpoint(JOB, PdfTextExtractor.VERSION, FIRST_KEY));
+            } catch (DataIntegrityViolationException e) {
+                // another instance created the row first; the claim below decides who runs
+            }
+        }
+        Instant now = Instant.now();
+        return checkpointRepository.claimLease(JOB, owner, now, now.plus(lease)) > 0;
+    }
+
+    // Fails the run (before the checkpoint moves) once another instance has taken the job over
+    private void renewLease() {
+        Instant now = Instant.now();
+        if (checkpointRepository.renewLease(JOB, owner, now, now.plus(lease)) == 0) {
+            throw new IllegalStateException("Backfill lease was taken over by another instance");
+        }
+    }
+
+    private void releaseLease() {
+        try {
+            checkpointRepository.releaseLease(JOB, owner);
+        } catch (Exception e) {
+            log.warn("Could not release the backfill lease; it expires in {}", lease, e);
+        }
+    }
+
+    private BackfillCheckpoint loadCheckpoint() {
+        BackfillCheckpoint cp = checkpointRepository.findById(JOB).orElseThrow();
+        if (cp.getTargetVersion() == PdfTextExtractor.VERSION && cp.getCompletedAt() == null) return cp;
+        cp.restart(PdfTextExtractor.VERSION, FIRST_KEY);
+        return checkpointRepository.save(cp);
+    }
+
+    private List<Result> extractAll(ExecutorService pool, List<FileKeyProjection> batch)
+            throws InterruptedException {
+        List<Future<Result>> futures = new ArrayList<>(batch.size());
+        for (FileKeyProjection key : batch) {
+            futures.add(pool.submit(() -> extractOne(key.getId(), key.getUserId())));
+        }
+
+        List<Result> results = new ArrayList<>(batch.size());
+        for (Future<Result> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException e) {
+                // extractOne handles its own failures; anything else aborts the run before the checkpoint moves
+                throw new IllegalStateException("Backfill task failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Result extractOne(UUID id, UUID userId) throws InterruptedException {
+        awaitToken();
+        try {
+            // Archived originals are read in place, not pulled back into the hot tier
+            byte[] data = fileBlobs.peek(id);
+            String text = textExtractor.extract(data);
+            TextStatus status = text.isBlank() ? TextStatus.EMPTY : TextStatus.READY;
+            return new Result(id, userId, text, status);
+        } catch (Exception e) {
+            log.warn("Backfill could not re-extract file {}", id, e);
+            return Result.failed(id, userId);
+        }
+    }
+
+    private void awaitToken() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = throughput.tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+
+    // Batch rows and checkpoint commit together: after a crash the batch is either fully written or redone
+    private BackfillCheckpoint writeBatch(BackfillCheckpoint cp, UUID lastKey, List<Result> results) {
+        long ok = results.stream().filter(r -> r.status != null).count();
+        long bad = results.size() - ok;
+
+        BackfillCheckpoint saved = tx.execute(status -> {
+            renewLease();
+            for (Result r : results) {
+                if (r.status == null) continue;
+                fileRepository.completeReextraction(r.id, r.text, r.status, PdfTextExtractor.VERSION);
+            }
+            cp.setLastFileId(lastKey);
+            cp.setProcessed(cp.getProcessed() + ok);
+            cp.setFailed(cp.getFailed() + bad);
+            cp.setUpdatedAt(Instant.now());
+            return checkpointRepository.save(cp);
+        });
+
+        updated.increment(ok);
+        failed.increment(bad);
+        return saved;
+    }
+
+    private void publish(List<Result> results) {
+        for (Result r : results) {
+            if (r.status == null) continue;
+            fileVersions.fileChanged(r.userId, r.id, FileEvent.Kind.TEXT, r.status);
+            indexStore.indexFileAsync(r.userId, r.id, r.text);
+        }
+    }
+
+    private record Result(UUID id, UUID userId, String text, TextStatus status) {
+        static Result failed(UUID id, UUID userId) {
+            return new Result(id, userId, null, null);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.slidesage.slidesage_backend.concurrent;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Structured fork/join over an executor: subtasks are forked inside a try-with-resources block,
+ * the first failure cancels the siblings, and nothing outlives the block.
+ * <p>
+ * Cancelling a {@link Future} only interrupts its task, and {@code get()} returns before the task has
+ * stopped, so every subtask also signals when its body has actually finished; {@link #join()} and
+ * {@link #close()} wait for that.
+ * <p>
+ * Same shape as {@code StructuredTaskScope.ShutdownOnFailure}, which is still a preview API on Java 21.
+ */
+public final class SubtaskScope implements AutoCloseable {
+
+    private final ExecutorService executor;
+    // Written by the owner thread, iterated by whichever subtask fails first
+    private final List<Task> tasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public SubtaskScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public <T> Subtask<T> fork(Callable<T> callable) {
+        Task task = new Task();
+        Future<T> future = executor.submit(() -> {
+            if (!task.started.compareAndSet(false, true)) return null; // cancelled before it ran
+            try {
+                return callable.call();
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) cancelAllExcept(task);
+                throw t;
+            } finally {
+                task.finished.countDown();
+            }
+        });
+        task.future = future;
+        tasks.add(task);
+        if (failure.get() != null) task.cancel();
+        return new Subtask<>(future);
+    }
+
+    /**
+     * Waits until every subtask has finished running. If any failed, the siblings are cancelled and the
+     * first failure is rethrown (unchecked as-is, checked wrapped in a {@link SubtaskFailedException}).
+     */
+    public void join() throws InterruptedException {
+        for (Task task : tasks) {
+            try {
+                task.future.get();
+            } catch (CancellationException | ExecutionException e) {
+                // the failing task already recorded itself
+            }
+            task.finished.await();
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException re) throw re;
+        if (t instanceof Error err) throw err;
+        if (t != null) throw new SubtaskFailedException(t);
+    }
+
+    /** True when a subtask failed; used by callers to decide on compensation. */
+    public boolean failed() {
+        return failure.get() != null;
+    }
+
+    /** Cancels whatever is still running and waits for it to stop; an interrupt is kept for the caller. */
+    @Override
+    public void close() {
+        cancelAllExcept(null);
+        boolean interrupted = false;
+        for (Task task : tasks) {
+            while (true) {
+                try {
+                    task.finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void cancelAllExcept(Task self) {
+        for (Task task : tasks) {
+            if (task != self) task.cancel();
+        }
+    }
+
+    private static final class Task {
+        final AtomicBoolean started = new AtomicBoolean();
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile Future<?> future;
+
+        void cancel() {
+            // A task cancelled before it started never runs its body, so it is finished right here
+            if (started.compareAndSet(false, true)) finished.countDown();
+            future.cancel(true);
+        }
+    }
+
+    public record Subtask<T>(Future<T> future) {
+        /** Result of a subtask that completed successfully; only valid after {@link #join()}. */
+        public T get() {
+            return future.resultNow();
+        }
+    }
+
+    public static class SubtaskFailedException extends RuntimeException {
+        public SubtaskFailedException(Throwable cause) { super(cause.getMessage(), cause); }
+    }
+}
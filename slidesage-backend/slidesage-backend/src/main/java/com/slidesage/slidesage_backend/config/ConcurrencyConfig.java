@@ -0,0 +1,25 @@
+package com.slidesage.slidesage_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Request threads follow Spring Boot's {@code spring.threads.virtual.enabled} switch (Tomcat then runs
+ * every request on a virtual thread). Request-scoped subtasks use the same kind of thread.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService subtaskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                           @Value("${subtasks.platform-threads:16}") int platformThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("subtask-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name("subtask-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,14 @@
+package com.slidesage.slidesage_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Tracked defaults for the actuator: exposes health plus the admission, backfill and tiering endpoints
+ * over HTTP (guarded by the ADMIN role in {@link SecurityConfig}). The local application.properties
+ * is not committed, so these can't live there; anything set there still takes precedence.
+ */
+@Configuration
+@PropertySource("classpath:management.properties")
+public class ManagementConfig {
+}
@@ -0,0 +1,10 @@
+package com.slidesage.slidesage_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Periodic housekeeping: access-time flushing, storage tiering and index persistence. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
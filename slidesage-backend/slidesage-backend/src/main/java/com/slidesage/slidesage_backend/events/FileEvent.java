@@ -0,0 +1,21 @@
+package com.slidesage.slidesage_backend.events;
+
+import com.slidesage.slidesage_backend.files.TextStatus;
+
+import java.util.UUID;
+
+/**
+ * A committed change to one file, published on the application event bus by {@code FileVersions}.
+ * {@code origin} names the instance that made the change, so relayed events are not sent back out.
+ */
+public record FileEvent(UUID userId, UUID fileId, Kind kind, TextStatus status, long version, String origin) {
+
+    public enum Kind { TEXT, SUMMARY, QUIZ }
+
+    /** Identifies this JVM among the instances sharing a relay. */
+    public static final String LOCAL_ORIGIN = UUID.randomUUID().toString();
+
+    public boolean isLocal() {
+        return LOCAL_ORIGIN.equals(origin);
+    }
+}
@@ -0,0 +1,174 @@
+package com.slidesage.slidesage_backend.events;
+
+import com.slidesage.slidesage_backend.files.FileVersions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user Server-Sent Events streams fed by {@link FileEvent}s.
+ * <p>
+ * An open stream holds no request thread: the emitter parks on Servlet async I/O, so idle
+ * connections cost a socket and a few objects. Sends run on virtual threads so a slow client never
+ * stalls the request that committed the change; each stream has its own queue drained by at most one
+ * sender at a time, so its events arrive in publish order. A client that falls more than
+ * {@code events.sse.max-queued} events behind is disconnected and refetches on reconnect. A comment
+ * heartbeat keeps proxies from closing idle streams and flushes out dead ones.
+ */
+@Component
+public class FileEventHub {
+
+    private final Map<UUID, Set<Connection>> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory());
+    private final ScheduledExecutorService heartbeat =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("sse-heartbeat").daemon().factory());
+
+    private final FileVersions fileVersions;
+    private final long timeoutMs;
+    private final int maxStreamsPerUser;
+    private final int maxQueued;
+
+    public FileEventHub(FileVersions fileVersions,
+                        MeterRegistry meterRegistry,
+                        @Value("${events.sse.timeout-ms:1800000}") long timeoutMs,
+                        @Value("${events.sse.max-streams-per-user:5}") int maxStreamsPerUser,
+                        @Value("${events.sse.heartbeat-seconds:25}") long heartbeatSeconds,
+                        @Value("${events.sse.max-queued:256}") int maxQueued) {
+        this.fileVersions = fileVersions;
+        this.timeoutMs = timeoutMs;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.maxQueued = maxQueued;
+        Gauge.builder("events.sse.connections", connections, AtomicInteger::get).register(meterRegistry);
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Opens a stream for {@code userId}; past the per-user cap the oldest stream is closed. */
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(emitter);
+        Runnable remove = () -> unregister(userId, connection);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Add and prune under the map's per-key lock so a stream never lands in a set that was just dropped
+        Connection[] evicted = new Connection[1];
+        streams.compute(userId, (id, set) -> {
+            if (set == null) set = new CopyOnWriteArraySet<>();
+            set.add(connection);
+            connections.incrementAndGet();
+            if (set.size() > maxStreamsPerUser) {
+                evicted[0] = set.iterator().next();
+                set.remove(evicted[0]);
+                connections.decrementAndGet();
+            }
+            return set;
+        });
+        if (evicted[0] != null) evicted[0].emitter.complete();
+
+        connection.send(SseEmitter.event().reconnectTime(5000).comment("connected"));
+        return emitter;
+    }
+
+    private void unregister(UUID userId, Connection connection) {
+        streams.computeIfPresent(userId, (id, set) -> {
+            if (set.remove(connection)) connections.decrementAndGet();
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @EventListener
+    public void onFileEvent(FileEvent event) {
+        Set<Connection> userStreams = streams.get(event.userId());
+        if (userStreams == null || userStreams.isEmpty()) return;
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("fileId", event.fileId());
+        data.put("kind", event.kind());
+        data.put("status", event.status());
+        // Same tag GET /api/files/{id} serves, so clients can skip a refetch they already have
+        data.put("etag", fileVersions.fileTag(event.version()));
+
+        for (Connection connection : userStreams) {
+            connection.send(SseEmitter.event().name("file").data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    private void sendHeartbeats() {
+        streams.values().forEach(set -> set.forEach(c -> c.send(SseEmitter.event().comment("ping"))));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        streams.values().forEach(set -> set.forEach(c -> c.emitter.complete()));
+        senders.shutdown();
+    }
+
+    /** One stream and its pending events, sent in order by at most one sender at a time. */
+    private final class Connection {
+        final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(SseEmitter.SseEventBuilder event) {
+            if (queued.incrementAndGet() > maxQueued) {
+                // Too far behind to catch up; on reconnect the client refetches instead
+                emitter.complete();
+                return;
+            }
+            queue.add(event);
+            if (draining.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (Exception e) {
+                        // Client went away; completing triggers the removal callback. Draining stays
+                        // set, so nothing more is sent on this stream.
+                        queue.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event queued after the last poll but before the flag cleared is picked up here
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.slidesage.slidesage_backend.events;
+
+import com.slidesage.slidesage_backend.files.FileVersions;
+import com.slidesage.slidesage_backend.files.TextStatus;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans {@link FileEvent}s out across instances with Postgres LISTEN/NOTIFY ({@code events.relay=postgres}).
+ * <p>
+ * Local events are sent with {@code pg_notify} over the pool; a dedicated connection, opened outside the pool
+ * so it never pins a pooled one, listens and replays other instances' events into {@link FileVersions}.
+ * Without the relay the in-process event bus is the whole story, which is right for a single instance.
+ */
+@Component
+@ConditionalOnProperty(name = "events.relay", havingValue = "postgres")
+public class PostgresEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresEventRelay.class);
+
+    private final JdbcTemplate jdbc;
+    private final FileVersions fileVersions;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    // NOTIFY off the committing thread; a single thread keeps this instance's events in order
+    private final ExecutorService notifier =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("file-events-notify").daemon().factory());
+    private volatile boolean stopped;
+    private volatile Connection listenConnection;
+
+    public PostgresEventRelay(JdbcTemplate jdbc,
+                              FileVersions fileVersions,
+                              @Value("${events.relay.channel:file_events}") String channel,
+                              @Value("${spring.datasource.url}") String url,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password) {
+        this.jdbc = jdbc;
+        this.fileVersions = fileVersions;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @EventListener
+    public void onFileEvent(FileEvent event) {
+        if (!event.isLocal()) return;
+        String payload = new JSONObject()
+                .put("userId", event.userId().toString())
+                .put("fileId", event.fileId().toString())
+                .put("kind", event.kind().name())
+                .put("status", event.status() == null ? JSONObject.NULL : event.status().name())
+                .put("origin", event.origin())
+                .toString();
+        notifier.execute(() -> {
+            try {
+                jdbc.queryForObject("select pg_notify(?, ?)", Object.class, channel, payload);
+            } catch (Exception e) {
+                log.warn("Could not relay file event for {}", event.fileId(), e);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        Thread.ofPlatform().name("file-events-listen").daemon().start(this::listenLoop);
+    }
+
+    private void listenLoop() {
+        while (!stopped) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                listenConnection = conn;
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + channel);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                log.info("Listening for file events on channel {}", channel);
+
+                while (!stopped) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null) continue;
+                    for (PGNotification n : notifications) {
+                        apply(n.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (stopped) return;
+                log.warn("File event listener lost its connection, reconnecting", e);
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            JSONObject json = new JSONObject(payload);
+            String origin = json.getString("origin");
+            if (FileEvent.LOCAL_ORIGIN.equals(origin)) return; // our own NOTIFY coming back
+            fileVersions.remoteChange(new FileEvent(
+                    UUID.fromString(json.getString("userId")),
+                    UUID.fromString(json.getString("fileId")),
+                    FileEvent.Kind.valueOf(json.getString("kind")),
+                    json.isNull("status") ? null : TextStatus.valueOf(json.getString("status")),
+                    0,
+                    origin));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed file event {}", payload, e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            TimeUnit.SECONDS.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        notifier.shutdown();
+        Connection conn = listenConnection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // shutting down anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.slidesage.slidesage_backend.files;
+
+import com.slidesage.slidesage_backend.admission.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted semaphore over a heap budget for live {@code PDDocument}s. Each extraction reserves its
+ * estimated footprint (from file size, refined by page count once the document is open) and waits
+ * while the budget is used up, so many small PDFs run in parallel but a few huge ones can't OOM the JVM.
+ * Usage is published as {@code extraction.budget.*} gauges.
+ */
+@Component
+public class ExtractionGovernor {
+
+    private static final long BASE_COST = 2L * 1024 * 1024;
+    private static final long BYTES_MULTIPLIER = 3;
+    private static final long PER_PAGE_COST = 200L * 1024;
+
+    private final long budget;
+    private final long tempFileThreshold;
+    private final long acquireTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long used;
+    private int inFlight;
+
+    private final Counter tempFileLoads;
+    private final Counter rejected;
+
+    public ExtractionGovernor(MeterRegistry meterRegistry,
+                              @Value("${extraction.memory-budget-mb:0}") long budgetMb,
+                              @Value("${extraction.temp-file-threshold-mb:32}") long tempFileThresholdMb,
+                              @Value("${extraction.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        // Default: a quarter of the max heap
+        this.budget = budgetMb > 0 ? budgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 4;
+        this.tempFileThreshold = tempFileThresholdMb * 1024 * 1024;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("extraction.budget.total.bytes", () -> budget).register(meterRegistry);
+        Gauge.builder("extraction.budget.used.bytes", this::usedBytes).register(meterRegistry);
+        Gauge.builder("extraction.in_flight", this::inFlight).register(meterRegistry);
+        this.tempFileLoads = Counter.builder("extraction.temp_file_loads").register(meterRegistry);
+        this.rejected = Counter.builder("extraction.rejected").register(meterRegistry);
+    }
+
+    public long estimate(long fileBytes, int pages) {
+        return BASE_COST + fileBytes * BYTES_MULTIPLIER + (long) pages * PER_PAGE_COST;
+    }
+
+    /** Whether a document of this estimated cost should use temp-file scratch storage instead of heap. */
+    public boolean useTempFile(long cost) {
+        boolean tempFile = cost >= tempFileThreshold;
+        if (tempFile) tempFileLoads.increment();
+        return tempFile;
+    }
+
+    /**
+     * Reserves {@code cost} bytes, waiting up to the configured timeout. A single document larger than
+     * the whole budget is admitted alone. Times out with a 503 rather than queueing forever.
+     */
+    public Lease acquire(long cost) {
+        long reserve = Math.min(cost, budget);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        lock.lock();
+        try {
+            while (used + reserve > budget) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, 5,
+                            "Too many large documents are being processed, please retry shortly.");
+                }
+                released.awaitNanos(remaining);
+            }
+            used += reserve;
+            inFlight++;
+            return new Lease(reserve);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for extraction budget", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return used;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long budgetBytes() {
+        return budget;
+    }
+
+    public final class Lease implements AutoCloseable {
+        private long reserved;
+        private boolean closed;
+
+        private Lease(long reserved) {
+            this.reserved = reserved;
+        }
+
+        /**
+         * Adjusts the reservation once the real size is known. Shrinking always succeeds; growing only takes
+         * what is free right now, since waiting while holding a reservation could deadlock two large documents.
+         */
+        public void resize(long cost) {
+            long target = Math.min(cost, budget);
+            lock.lock();
+            try {
+                if (closed) return;
+                long delta = target - reserved;
+                if (delta < 0) {
+                    used += delta;
+                    reserved = target;
+                    released.signalAll();
+                } else if (delta > 0) {
+                    long grant = Math.min(delta, Math.max(0, budget - used));
+                    used += grant;
+                    reserved += grant;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) return;
+                closed = true;
+                used -= reserved;
+                inFlight--;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ public interface FileDetailProjection {
     String getExtractedText();
     Instant getUpdatedAt();
     String getSummary();
+    TextStatus getQuizStatus();
     String getContentType();
     long getSize();
 }
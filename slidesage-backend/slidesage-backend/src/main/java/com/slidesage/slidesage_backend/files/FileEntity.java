@@ -1,6 +1,8 @@
 package com.slidesage.slidesage_backend.files;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -22,8 +24,18 @@ public class FileEntity {
     private String contentType;
 
     @Lob
+    private byte[] fileData;   // raw PDF bytes; null while ARCHIVED
+
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'HOT'")
     @Column(nullable = false)
-    private byte[] fileData;   // raw PDF bytes
+    private StorageTier storageTier = StorageTier.HOT;
+
+    private Long archivedBytes;     // compressed size in the archive while ARCHIVED
+    private Instant lastAccessedAt; // flushed in batches by FileAccessTracker
+
+    @Column(length = 64)
+    private String contentHash;    // SHA-256 of fileData, hex
 
     @Lob
     private String extractedText;  // extracted plain text
@@ -34,6 +46,13 @@ public class FileEntity {
     @Enumerated(EnumType.STRING)
     private TextStatus status;     // e.g. NONE, READY, ERROR
 
+    private Integer extractorVersion; // PdfTextExtractor.VERSION that produced extractedText
+
+    @Enumerated(EnumType.STRING)
+    private TextStatus quizStatus; // NONE until a quiz is requested
+
+    private Instant quizStartedAt; // when the current (or last) quiz job claimed the file
+
     @Column(nullable = false)
     private UUID userId;           // foreign key to users.id
 
@@ -49,6 +68,7 @@ public class FileEntity {
         this.fileData = fileData;
         this.userId = userId;
         this.status = TextStatus.NONE;
+        this.quizStatus = TextStatus.NONE;
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
     }
@@ -63,6 +83,18 @@ public class FileEntity {
     public byte[] getFileData() { return fileData; }
     public void setFileData(byte[] fileData) { this.fileData = fileData; }
 
+    public StorageTier getStorageTier() { return storageTier; }
+    public void setStorageTier(StorageTier storageTier) { this.storageTier = storageTier; }
+
+    public Long getArchivedBytes() { return archivedBytes; }
+    public void setArchivedBytes(Long archivedBytes) { this.archivedBytes = archivedBytes; }
+
+    public Instant getLastAccessedAt() { return lastAccessedAt; }
+    public void setLastAccessedAt(Instant lastAccessedAt) { this.lastAccessedAt = lastAccessedAt; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
     public String getExtractedText() { return extractedText; }
     public void setExtractedText(String extractedText) { this.extractedText = extractedText; }
 
@@ -72,6 +104,15 @@ public class FileEntity {
     public TextStatus getStatus() { return status; }
     public void setStatus(TextStatus status) { this.status = status; }
 
+    public Integer getExtractorVersion() { return extractorVersion; }
+    public void setExtractorVersion(Integer extractorVersion) { this.extractorVersion = extractorVersion; }
+
+    public TextStatus getQuizStatus() { return quizStatus; }
+    public void setQuizStatus(TextStatus quizStatus) { this.quizStatus = quizStatus; }
+
+    public Instant getQuizStartedAt() { return quizStartedAt; }
+    public void setQuizStartedAt(Instant quizStartedAt) { this.quizStartedAt = quizStartedAt; }
+
     public UUID getUserId() { return userId; }
     public void setUserId(UUID userId) { this.userId = userId; }
 
@@ -0,0 +1,169 @@
+package com.slidesage.slidesage_backend.files;
+
+import com.slidesage.slidesage_backend.storage.ArchiveStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes all of a user's files as a ZIP ({@code <name> (<id prefix>)/original.pdf, extracted.txt, summary.txt})
+ * straight to an output stream.
+ * <p>
+ * Rows come through a forward-only JDBC cursor with a bounded fetch size inside a read-only transaction
+ * (Postgres only streams a cursor with autocommit off), and every LOB is copied through one fixed buffer,
+ * so memory use doesn't depend on how many or how large the files are. Archived originals are streamed
+ * from the archive without rehydrating them.
+ * <p>
+ * Each export holds a pooled connection and its transaction for the whole download, however slow the
+ * client is, so the EXPORT in-flight cap must stay below the connection pool size; {@code AdmissionService}
+ * enforces that at startup and whenever the limit is changed.
+ */
+@Component
+public class FileExporter {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_NAME_CHARS = 80;
+
+    private static final String EXPORT_QUERY = """
+            select id, filename, storage_tier, file_data, extracted_text, summary
+              from files
+             where user_id = ?
+             order by created_at""";
+
+    private static final String FILE_DATA_QUERY = "select file_data from files where id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final ArchiveStore archiveStore;
+
+    public FileExporter(DataSource dataSource, TransactionTemplate tx, ArchiveStore archiveStore,
+                        @Value("${export.fetch-size:16}") int fetchSize) {
+        // Own template so the fetch size only applies to export reads
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(tx.getTransactionManager());
+        this.readOnlyTx.setReadOnly(true);
+        this.archiveStore = archiveStore;
+    }
+
+    public void writeZip(UUID userId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(Deflater.BEST_SPEED); // PDFs are mostly compressed already; don't burn CPU on them
+        byte[] buffer = new byte[BUFFER_BYTES];
+        char[] chars = new char[BUFFER_BYTES / 2];
+
+        try {
+            readOnlyTx.executeWithoutResult(status ->
+                    jdbc.query(EXPORT_QUERY, rs -> {
+                        try {
+                            writeRow(rs, zip, buffer, chars);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, userId));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        zip.finish(); // the servlet container owns and closes the response stream
+    }
+
+    private void writeRow(ResultSet rs, ZipOutputStream zip, byte[] buffer, char[] chars)
+            throws SQLException, IOException {
+        UUID id = rs.getObject("id", UUID.class);
+        String folder = folderName(rs.getString("filename"), id);
+
+        zip.putNextEntry(new ZipEntry(folder + "/original.pdf"));
+        if (StorageTier.ARCHIVED.name().equals(rs.getString("storage_tier"))) {
+            try (InputStream in = archiveStore.open(id)) {
+                copy(in, zip, buffer);
+            } catch (NoSuchFileException e) {
+                // Rehydrated since the cursor read the row: the bytes are back in file_data, which a
+                // new statement sees (read committed) while the cursor's row still has it empty
+                Boolean copied = jdbc.query(FILE_DATA_QUERY, fresh -> {
+                    if (!fresh.next()) return false;
+                    Blob blob = fresh.getBlob("file_data");
+                    if (blob == null) return false;
+                    try {
+                        copyBlob(blob, zip, buffer);
+                    } catch (IOException io) {
+                        throw new UncheckedIOException(io);
+                    }
+                    return true;
+                }, id);
+                // Abort rather than hand out an empty original.pdf that looks like a successful export
+                if (!Boolean.TRUE.equals(copied)) {
+                    throw new IOException("Original of file " + id + " is neither in the archive nor in file_data", e);
+                }
+            }
+        } else {
+            copyBlob(rs.getBlob("file_data"), zip, buffer);
+        }
+        zip.closeEntry();
+
+        writeText(rs.getClob("extracted_text"), folder + "/extracted.txt", zip, chars);
+        writeText(rs.getClob("summary"), folder + "/summary.txt", zip, chars);
+    }
+
+    private static void copyBlob(Blob blob, OutputStream out, byte[] buffer) throws SQLException, IOException {
+        if (blob == null) return;
+        try (InputStream in = blob.getBinaryStream()) {
+            copy(in, out, buffer);
+        } finally {
+            blob.free();
+        }
+    }
+
+    private static void writeText(Clob clob, String name, ZipOutputStream zip, char[] chars)
+            throws SQLException, IOException {
+        if (clob == null) return;
+        try {
+            zip.putNextEntry(new ZipEntry(name));
+            // Not closed: closing the writer would close the zip stream
+            Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            try (Reader reader = clob.getCharacterStream()) {
+                int n;
+                while ((n = reader.read(chars)) != -1) writer.write(chars, 0, n);
+            }
+            writer.flush();
+            zip.closeEntry();
+        } finally {
+            clob.free();
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        int n;
+        while ((n = in.read(buffer)) != -1) out.write(buffer, 0, n);
+    }
+
+    // Filenames are user input: strip path and reserved characters, keep an id prefix so names stay unique
+    static String folderName(String filename, UUID id) {
+        String base = filename == null ? "file" : filename;
+        if (base.toLowerCase().endsWith(".pdf")) base = base.substring(0, base.length() - 4);
+        base = base.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").strip();
+        if (base.isEmpty() || base.chars().allMatch(c -> c == '.')) base = "file";
+        if (base.length() > MAX_NAME_CHARS) base = base.substring(0, MAX_NAME_CHARS);
+        return base + " (" + id.toString().substring(0, 8) + ")";
+    }
+}
@@ -0,0 +1,8 @@
+package com.slidesage.slidesage_backend.files;
+
+import java.util.UUID;
+
+public interface FileKeyProjection {
+    UUID getId();
+    UUID getUserId();
+}
@@ -1,6 +1,14 @@
 package com.slidesage.slidesage_backend.files;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,4 +20,159 @@ public interface FileRepository extends JpaRepository<FileEntity, UUID> {
 
     // Return only the projection, not the whole entity
     List<FileItemProjection> findAllByUserIdOrderByUpdatedAtDesc(UUID userId);
+
+    @Transactional(readOnly = true)
+    List<FileTextProjection> findAllByIdInAndUserId(Collection<UUID> ids, UUID userId);
+
+    // Files whose text belongs in the user's search index
+    @Query("""
+            select f.id from FileEntity f
+            where f.userId = :userId
+              and f.status = com.slidesage.slidesage_backend.files.TextStatus.READY
+            """)
+    List<UUID> findReadyIdsByUserId(@Param("userId") UUID userId);
+
+    // --- Quiz jobs (column-targeted updates so status changes don't rewrite the LOB columns) ---
+
+    /**
+     * Claims the file for a new quiz job: only one request wins, and a PENDING left behind by a job
+     * that started before {@code staleBefore} (crash, restart) can be taken over.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f
+               set f.quizStatus = com.slidesage.slidesage_backend.files.TextStatus.PENDING, f.quizStartedAt = :startedAt
+             where f.id = :id
+               and (f.quizStatus is null
+                    or f.quizStatus <> com.slidesage.slidesage_backend.files.TextStatus.PENDING
+                    or f.quizStartedAt is null or f.quizStartedAt < :staleBefore)""")
+    int claimQuiz(@Param("id") UUID id, @Param("startedAt") Instant startedAt, @Param("staleBefore") Instant staleBefore);
+
+    // Only the job that holds the claim may report; a job that was taken over writes nothing
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f set f.quizStatus = :status
+             where f.id = :id
+               and f.quizStatus = com.slidesage.slidesage_backend.files.TextStatus.PENDING
+               and f.quizStartedAt = :startedAt""")
+    int completeQuiz(@Param("id") UUID id, @Param("status") TextStatus status, @Param("startedAt") Instant startedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f set f.quizStatus = com.slidesage.slidesage_backend.files.TextStatus.ERROR
+             where f.quizStatus = com.slidesage.slidesage_backend.files.TextStatus.PENDING
+               and (f.quizStartedAt is null or f.quizStartedAt < :staleBefore)""")
+    int failStaleQuizzes(@Param("staleBefore") Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f
+               set f.extractedText = :text, f.status = :status, f.contentHash = :hash,
+                   f.extractorVersion = :version, f.updatedAt = :updatedAt
+             where f.id = :id""")
+    int completeExtraction(@Param("id") UUID id, @Param("text") String text, @Param("status") TextStatus status,
+                           @Param("hash") String hash, @Param("version") int extractorVersion,
+                           @Param("updatedAt") Instant updatedAt);
+
+    // Leaves file_data, storage tier, text and quiz columns alone, whatever happened to them during the LLM call
+    @Transactional
+    @Modifying
+    @Query("update FileEntity f set f.summary = :summary, f.updatedAt = :updatedAt where f.id = :id and f.userId = :userId")
+    int updateSummary(@Param("id") UUID id, @Param("userId") UUID userId, @Param("summary") String summary,
+                      @Param("updatedAt") Instant updatedAt);
+
+    // --- Abandoned uploads ---
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select f.id as id, f.userId as userId from FileEntity f
+             where f.status = com.slidesage.slidesage_backend.files.TextStatus.PENDING
+               and f.createdAt < :staleBefore""")
+    List<FileKeyProjection> findStalePendingUploads(@Param("staleBefore") Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f set f.status = com.slidesage.slidesage_backend.files.TextStatus.ERROR
+             where f.id = :id and f.status = com.slidesage.slidesage_backend.files.TextStatus.PENDING""")
+    int failPendingUpload(@Param("id") UUID id);
+
+    // --- Backfill ---
+
+    // Keyset page: the primary key index serves both the filter and the order, however deep the cursor is.
+    // PENDING rows are uploads still being extracted; their own completion sets the current version.
+    @Transactional(readOnly = true)
+    @Query("""
+            select f.id as id, f.userId as userId from FileEntity f
+             where f.id > :after and (f.extractorVersion is null or f.extractorVersion < :version)
+               and (f.status is null or f.status <> com.slidesage.slidesage_backend.files.TextStatus.PENDING)
+             order by f.id""")
+    List<FileKeyProjection> findStaleExtractionsAfter(@Param("after") UUID after, @Param("version") int version,
+                                                      Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select f.fileData from FileEntity f where f.id = :id")
+    Optional<byte[]> findFileDataById(@Param("id") UUID id);
+
+    // Leaves updatedAt alone so re-extraction doesn't reshuffle every user's recent-files list
+    @Modifying
+    @Query("""
+            update FileEntity f
+               set f.extractedText = :text, f.status = :status, f.extractorVersion = :version
+             where f.id = :id""")
+    int completeReextraction(@Param("id") UUID id, @Param("text") String text, @Param("status") TextStatus status,
+                             @Param("version") int extractorVersion);
+
+    // --- Storage tiering ---
+
+    Optional<FileItemProjection> findItemByIdAndUserId(UUID id, UUID userId);
+
+    @Transactional(readOnly = true)
+    @Query("select f.storageTier from FileEntity f where f.id = :id")
+    Optional<StorageTier> findStorageTierById(@Param("id") UUID id);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select f.id from FileEntity f
+             where f.id > :after
+               and f.storageTier = com.slidesage.slidesage_backend.files.StorageTier.HOT
+               and f.status <> com.slidesage.slidesage_backend.files.TextStatus.PENDING
+               and coalesce(f.lastAccessedAt, f.createdAt) < :cutoff
+             order by f.id""")
+    List<UUID> findColdFilesAfter(@Param("after") UUID after, @Param("cutoff") Instant cutoff, Limit limit);
+
+    // Guarded by the current tier so a concurrent move on another instance turns into a no-op
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f
+               set f.fileData = null, f.archivedBytes = :archivedBytes,
+                   f.storageTier = com.slidesage.slidesage_backend.files.StorageTier.ARCHIVED
+             where f.id = :id and f.storageTier = com.slidesage.slidesage_backend.files.StorageTier.HOT""")
+    int markArchived(@Param("id") UUID id, @Param("archivedBytes") long archivedBytes);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update FileEntity f
+               set f.fileData = :data, f.archivedBytes = null, f.lastAccessedAt = :accessedAt,
+                   f.storageTier = com.slidesage.slidesage_backend.files.StorageTier.HOT
+             where f.id = :id and f.storageTier = com.slidesage.slidesage_backend.files.StorageTier.ARCHIVED""")
+    int restoreFromArchive(@Param("id") UUID id, @Param("data") byte[] data, @Param("accessedAt") Instant accessedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update FileEntity f set f.lastAccessedAt = :accessedAt where f.id in :ids")
+    int touch(@Param("ids") Collection<UUID> ids, @Param("accessedAt") Instant accessedAt);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select f.storageTier as tier, count(f) as files,
+                   coalesce(sum(f.size), 0) as originalBytes, coalesce(sum(f.archivedBytes), 0) as archivedBytes
+              from FileEntity f group by f.storageTier""")
+    List<TierStatsProjection> tierStats();
 }
@@ -1,40 +1,71 @@
 package com.slidesage.slidesage_backend.files;
 
+import com.slidesage.slidesage_backend.events.FileEvent;
 import com.slidesage.slidesage_backend.files.dto.FileDetailResp;
 import com.slidesage.slidesage_backend.files.dto.ExtractTextResponse;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import com.slidesage.slidesage_backend.files.dto.QuizResp;
+import com.slidesage.slidesage_backend.files.exception.FileNotFoundException;
+import com.slidesage.slidesage_backend.llm.LlmClient;
+import com.slidesage.slidesage_backend.quiz.QuizService;
+import com.slidesage.slidesage_backend.retrieval.UserIndexStore;
+import com.slidesage.slidesage_backend.concurrent.SubtaskScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import org.json.JSONObject;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class FileService {
 
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
+    private static final Logger log = LoggerFactory.getLogger(FileService.class);
 
     private final FileRepository fileRepository;
-
-    public FileService(FileRepository fileRepository) {
+    private final LlmClient llmClient;
+    private final QuizService quizService;
+    private final UserIndexStore indexStore;
+    private final FileVersions fileVersions;
+    private final PdfTextExtractor textExtractor;
+    private final ExecutorService subtaskExecutor;
+    private final TransactionTemplate tx;
+    private final Duration pendingTimeout;
+
+    public FileService(FileRepository fileRepository, LlmClient llmClient, QuizService quizService,
+                       UserIndexStore indexStore, FileVersions fileVersions, PdfTextExtractor textExtractor,
+                       ExecutorService subtaskExecutor, TransactionTemplate tx,
+                       @Value("${upload.pending-timeout-minutes:10}") long pendingTimeoutMinutes) {
         this.fileRepository = fileRepository;
+        this.llmClient = llmClient;
+        this.quizService = quizService;
+        this.indexStore = indexStore;
+        this.fileVersions = fileVersions;
+        this.textExtractor = textExtractor;
+        this.subtaskExecutor = subtaskExecutor;
+        this.tx = tx;
+        this.pendingTimeout = Duration.ofMinutes(pendingTimeoutMinutes);
     }
 
     /**
      * Save and extract PDF text for the authenticated user.
+     * <p>
+     * Hashing, text extraction and storing the blob run as concurrent subtasks; if one fails the others
+     * are cancelled and an already stored row is removed again, as it is when recording the result fails.
      */
-    @Transactional
     public ExtractTextResponse saveAndExtract(MultipartFile file, UUID userId) {
         // 1) Validate file
         if (file == null || file.isEmpty()) {
@@ -53,43 +84,99 @@ public class FileService {
             throw new RuntimeException("Failed to read uploaded bytes.", e);
         }
 
-        // 3) Extract text using PDFBox
+        // 3) Hash, extract and store the blob (as PENDING) concurrently
+        SubtaskScope.Subtask<UUID> stored;
+        SubtaskScope.Subtask<String> hashed;
+        SubtaskScope.Subtask<String> extractedTask;
+        UUID id;
         String extracted;
-        try (PDDocument doc = Loader.loadPDF(bytes)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            extracted = normalize(stripper.getText(doc));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract text from PDF.", e);
+        TextStatus status;
+        Instant updatedAt;
+        // Set on commit, so a cancelled insert that still committed is known too
+        AtomicReference<UUID> committed = new AtomicReference<>();
+        try (SubtaskScope scope = new SubtaskScope(subtaskExecutor)) {
+            hashed = scope.fork(() -> sha256(bytes));
+            extractedTask = scope.fork(() -> textExtractor.extract(bytes));
+            stored = scope.fork(() -> tx.execute(txStatus -> {
+                FileEntity entity = new FileEntity(file.getOriginalFilename(), bytes, userId);
+                entity.setStatus(TextStatus.PENDING);
+                entity.setContentType(file.getContentType());
+                entity.setSize(file.getSize());
+                UUID savedId = fileRepository.save(entity).getId();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.set(savedId);
+                    }
+                });
+                return savedId;
+            }));
+            scope.join();
+
+            // 4) Fill in the extraction result without rewriting the blob
+            id = stored.get();
+            extracted = extractedTask.get();
+            status = extracted.isBlank() ? TextStatus.EMPTY : TextStatus.READY;
+            updatedAt = Instant.now();
+            fileRepository.completeExtraction(id, extracted, status, hashed.get(), PdfTextExtractor.VERSION, updatedAt);
+        } catch (InterruptedException | RuntimeException e) {
+            // The scope has closed, so every subtask has stopped and a committed insert is visible by now
+            discardUpload(userId, committed.get(), e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Upload interrupted.", e);
+            }
+            throw (RuntimeException) e;
         }
 
-        // 4) Save entity for the authenticated user
-        FileEntity entity = new FileEntity(file.getOriginalFilename(), bytes, userId);
-        entity.setExtractedText(extracted);
-        entity.setStatus(extracted.isBlank() ? TextStatus.EMPTY : TextStatus.READY);
-        entity.setContentType(file.getContentType());
-        entity.setSize(file.getSize());
-
-        FileEntity saved = fileRepository.save(entity);
+        fileVersions.fileChanged(userId, id, FileEvent.Kind.TEXT, status);
+        if (status == TextStatus.READY) {
+            indexStore.indexFileAsync(userId, id, extracted);
+        }
 
         // 5) Build lightweight response
         String preview = preview(extracted, 600);
         return new ExtractTextResponse(
-                saved.getId(),
-                saved.getStatus(),
+                id,
+                status,
                 extracted.length(),
                 preview,
-                saved.getUpdatedAt()
+                updatedAt
         );
     }
 
+    /**
+     * Fails uploads still PENDING after {@code upload.pending-timeout-minutes}: the instance handling
+     * them died between the insert and recording the result. Marked ERROR with no extractor version, they
+     * are re-extracted by the next backfill run.
+     */
+    @Scheduled(fixedDelayString = "${upload.pending-sweep-ms:300000}")
+    public void failStaleUploads() {
+        int failed = 0;
+        for (FileKeyProjection upload : fileRepository.findStalePendingUploads(Instant.now().minus(pendingTimeout))) {
+            // An upload that finished in the meantime is left alone
+            if (fileRepository.failPendingUpload(upload.getId()) == 0) continue;
+            fileVersions.fileChanged(upload.getUserId(), upload.getId(), FileEvent.Kind.TEXT, TextStatus.ERROR);
+            failed++;
+        }
+        if (failed > 0) log.info("Marked {} abandoned uploads as ERROR", failed);
+    }
+
     // --- Helpers ---
 
-    private static String normalize(String s) {
-        if (s == null) return "";
-        String unified = s.replace("\r\n", "\n");
-        unified = unified.replaceAll("\n{3,}", "\n\n");  // collapse >2 newlines
-        unified = unified.replaceAll("[ \\t]{2,}", " "); // collapse long spaces/tabs
-        return unified.trim();
+    private void discardUpload(UUID userId, UUID id, Exception cause) {
+        if (id == null) return;
+        try {
+            fileRepository.deleteById(id);
+            // A poll may already have listed the PENDING row
+            fileVersions.fileChanged(userId, id, FileEvent.Kind.TEXT, TextStatus.ERROR);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
     }
 
     private static String preview(String s, int max) {
@@ -98,6 +185,11 @@ public class FileService {
         return s.substring(0, max) + "…";
     }
 
+    public FileItemProjection getFileItem(UUID fileId, UUID userId) {
+        return fileRepository.findItemByIdAndUserId(fileId, userId)
+                .orElseThrow(() -> new FileNotFoundException(fileId));
+    }
+
     @Transactional(readOnly = true)
     public List<FileItemProjection> getUserFiles(UUID userId) {
         return fileRepository.findAllByUserIdOrderByUpdatedAtDesc(userId);
@@ -119,16 +211,18 @@ public class FileService {
                             proj.getUpdatedAt(),
                             proj.getSummary(),
                             proj.getContentType(),
-                            proj.getSize()
+                            proj.getSize(),
+                            proj.getQuizStatus(),
+                            quizIfReady(proj.getId(), proj.getQuizStatus())
                     );
                 })
                 .orElseThrow(() -> new RuntimeException("File not found or not accessible"));
     }
 
-    @Transactional
+    // No transaction around the LLM call; the summary is written by a column-targeted update
     public FileDetailResp generateSummary(UUID fileId, UUID userId) {
-        // Step 1: Fetch file for this user
-        FileEntity file = fileRepository.findEntityByIdAndUserId(fileId, userId)
+        // Step 1: Fetch the file's text for this user (no blob)
+        FileDetailProjection file = fileRepository.findByIdAndUserId(fileId, userId)
                 .orElseThrow(() -> new RuntimeException("File not found for this user."));
 
         // Step 2: Check extracted text
@@ -140,84 +234,44 @@ public class FileService {
         // Step 3: Generate the summary using Gemini
         String summary = summarizeWithGemini(extractedText);
 
-        // Step 4: Update entity fields
-        file.setSummary(summary);
-        file.setUpdatedAt(Instant.now());
-        fileRepository.save(file);
+        // Step 4: Store only the summary
+        Instant updatedAt = Instant.now();
+        if (fileRepository.updateSummary(fileId, userId, summary, updatedAt) == 0) {
+            throw new RuntimeException("File not found for this user.");
+        }
+        fileVersions.fileChanged(userId, fileId, FileEvent.Kind.SUMMARY, TextStatus.READY);
 
         // Step 5: Return DTO (manually map fields)
         return new FileDetailResp(
                 file.getId(),
                 file.getStatus(),
-                file.getExtractedText() != null ? file.getExtractedText().length() : 0,
-                buildPreview(file.getExtractedText()),
-                file.getUpdatedAt(),
-                file.getSummary(),
+                extractedText.length(),
+                buildPreview(extractedText),
+                updatedAt,
+                summary,
                 file.getContentType(),
-                file.getSize()
+                file.getSize(),
+                file.getQuizStatus(),
+                quizIfReady(file.getId(), file.getQuizStatus())
         );
     }
 
+    private QuizResp quizIfReady(UUID fileId, TextStatus quizStatus) {
+        return quizStatus == TextStatus.READY ? quizService.getQuiz(fileId) : null;
+    }
+
     private String buildPreview(String text) {
         if (text == null || text.isBlank()) return "";
         int maxLength = 600;
         return text.length() <= maxLength ? text : text.substring(0, maxLength) + "…";
     }
 
+    // Failures propagate (LlmBusyException as 503) instead of being stored as the summary
     private String summarizeWithGemini(String text) {
-        try {
-            // Limit text length for free API
-            if (text.length() > 4000) {
-                text = text.substring(0, 4000);
-            }
-
-            String endpoint = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent";
-
-            // Escape text
-            String escapedText = text
-                    .replace("\"", "\\\"")
-                    .replace("\n", " ");
-
-            String payload = String.format("""
-{
-  "contents": [
-    {
-      "parts": [
-        {"text": "Summarize this text: %s"}
-      ]
-    }
-  ]
-}
-""", escapedText);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(endpoint))
-                    .header("Content-Type", "application/json")
-                    .header("x-goog-api-key", geminiApiKey.trim())
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .build();
-
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Gemini API returned " + response.statusCode() + ": " + response.body());
-            }
-
-            JSONObject json = new JSONObject(response.body());
-            String summary = json
-                    .getJSONArray("candidates")
-                    .getJSONObject(0)
-                    .getJSONObject("content")
-                    .getJSONArray("parts")
-                    .getJSONObject(0)
-                    .getString("text");
-
-            return summary.trim();
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "Summary generation failed: " + e.getMessage();
+        // Limit text length for free API
+        if (text.length() > 4000) {
+            text = text.substring(0, 4000);
         }
+        return llmClient.generate("Summarize this text: " + text);
     }
 }
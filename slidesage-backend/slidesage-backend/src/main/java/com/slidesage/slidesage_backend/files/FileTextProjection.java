@@ -0,0 +1,9 @@
+package com.slidesage.slidesage_backend.files;
+
+import java.util.UUID;
+
+public interface FileTextProjection {
+    UUID getId();
+    String getFilename();
+    String getExtractedText();
+}
@@ -0,0 +1,150 @@
+package com.slidesage.slidesage_backend.files;
+
+import com.slidesage.slidesage_backend.events.FileEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory version counters behind the ETags of the polled file endpoints: one per file and one per
+ * user's listing, both bumped on any change. ETags carry a per-process epoch, so after a restart every
+ * client tag misses once and the counters can start from zero again.
+ * <p>
+ * At most {@code files.versions.max-tracked} files are tracked, least recently used first out. File
+ * versions come from one process-wide counter, so a file that is evicted and tracked again never
+ * reuses a version an old tag could still carry; eviction only costs its clients one full response.
+ * <p>
+ * Every bump is also published as a {@link FileEvent}, which feeds the push notifications.
+ * <p>
+ * The counters only see changes made on this instance, plus those relayed from the others. So a
+ * client's tag is only answered with 304 when the relay is on ({@code events.relay=postgres}) or the
+ * deployment says it runs a single instance ({@code files.versions.single-instance=true}); otherwise
+ * another instance could have changed the file unseen, and every request gets the full response.
+ */
+@Component
+public class FileVersions {
+
+    private record FileVersion(UUID userId, long version) {}
+
+    private final ApplicationEventPublisher events;
+    private final boolean revalidate;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock filesLock = new ReentrantLock();
+    private final LinkedHashMap<UUID, FileVersion> files;
+    private final Map<UUID, AtomicLong> listings = new ConcurrentHashMap<>();
+
+    public FileVersions(ApplicationEventPublisher events,
+                        @Value("${files.versions.max-tracked:100000}") int maxTracked,
+                        @Value("${events.relay:}") String relay,
+                        @Value("${files.versions.single-instance:false}") boolean singleInstance) {
+        this.events = events;
+        this.revalidate = "postgres".equals(relay) || singleInstance;
+        this.files = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, FileVersion> eldest) {
+                return size() > maxTracked;
+            }
+        };
+    }
+
+    /**
+     * Records a change to a file. Inside a transaction the bump waits for the commit, so a poll can
+     * never pair the new tag with rows it read before the commit.
+     */
+    public void fileChanged(UUID userId, UUID fileId, FileEvent.Kind kind, TextStatus status) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(userId, fileId, kind, status, FileEvent.LOCAL_ORIGIN);
+                }
+            });
+        } else {
+            bump(userId, fileId, kind, status, FileEvent.LOCAL_ORIGIN);
+        }
+    }
+
+    /** Applies a change committed by another instance, so this instance's ETags and subscribers see it too. */
+    public void remoteChange(FileEvent event) {
+        bump(event.userId(), event.fileId(), event.kind(), event.status(), event.origin());
+    }
+
+    private void bump(UUID userId, UUID fileId, FileEvent.Kind kind, TextStatus status, String origin) {
+        FileVersion v = new FileVersion(userId, clock.incrementAndGet());
+        filesLock.lock();
+        try {
+            files.put(fileId, v);
+        } finally {
+            filesLock.unlock();
+        }
+        listings.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        events.publishEvent(new FileEvent(userId, fileId, kind, status, v.version(), origin));
+    }
+
+    /** Current tag of a file known to belong to {@code userId}, or null when it has not been served yet. */
+    public String fileEtag(UUID userId, UUID fileId) {
+        FileVersion v = get(fileId);
+        return v != null && v.userId().equals(userId) ? fileTag(v.version()) : null;
+    }
+
+    /**
+     * Version to tag a response with; must be read before the rows are loaded. An untracked file gets
+     * the current clock, which is at least as new as any change already committed.
+     */
+    public long fileVersion(UUID fileId) {
+        FileVersion v = get(fileId);
+        return v == null ? clock.get() : v.version();
+    }
+
+    /** Starts tracking a file at the version its response was tagged with, once its owner has been confirmed. */
+    public void track(UUID userId, UUID fileId, long version) {
+        filesLock.lock();
+        try {
+            files.putIfAbsent(fileId, new FileVersion(userId, version));
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    private FileVersion get(UUID fileId) {
+        filesLock.lock();
+        try {
+            return files.get(fileId);
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    public String fileTag(long version) {
+        return "\"f" + epoch + "-" + version + "\"";
+    }
+
+    public String listingEtag(UUID userId) {
+        return "\"l" + epoch + "-" + listings.computeIfAbsent(userId, id -> new AtomicLong()).get() + "\"";
+    }
+
+    /** True when the client's cached copy is still current and may be answered with 304. */
+    public boolean unchanged(String ifNoneMatch, String etag) {
+        return revalidate && matches(ifNoneMatch, etag);
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) return true;
+        }
+        return false;
+    }
+}
@@ -1,16 +1,34 @@
 package com.slidesage.slidesage_backend.files;
 
+import com.slidesage.slidesage_backend.admission.AdmissionService;
 import com.slidesage.slidesage_backend.files.dto.FileDetailResp;
 import com.slidesage.slidesage_backend.files.dto.ExtractTextResponse;
+import com.slidesage.slidesage_backend.files.dto.AskRequest;
+import com.slidesage.slidesage_backend.files.dto.AskResponse;
 import com.slidesage.slidesage_backend.auth.JwtUtil;
 import com.slidesage.slidesage_backend.auth.UserRepository;
 import com.slidesage.slidesage_backend.auth.User;
+import com.slidesage.slidesage_backend.events.FileEventHub;
+import com.slidesage.slidesage_backend.quiz.QuizService;
+import com.slidesage.slidesage_backend.retrieval.AskService;
+import com.slidesage.slidesage_backend.storage.FileAccessTracker;
+import com.slidesage.slidesage_backend.storage.FileBlobs;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,11 +38,30 @@ import java.util.UUID;
 public class FilesController {
 
     private final FileService fileService;
+    private final QuizService quizService;
+    private final AskService askService;
+    private final FileVersions fileVersions;
+    private final AdmissionService admissionService;
+    private final FileEventHub eventHub;
+    private final FileBlobs fileBlobs;
+    private final FileAccessTracker accessTracker;
+    private final FileExporter fileExporter;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
 
-    public FilesController(FileService fileService, JwtUtil jwtUtil, UserRepository userRepository) {
+    public FilesController(FileService fileService, QuizService quizService, AskService askService,
+                           FileVersions fileVersions, AdmissionService admissionService, FileEventHub eventHub,
+                           FileBlobs fileBlobs, FileAccessTracker accessTracker, FileExporter fileExporter,
+                           JwtUtil jwtUtil, UserRepository userRepository) {
         this.fileService = fileService;
+        this.quizService = quizService;
+        this.askService = askService;
+        this.fileVersions = fileVersions;
+        this.admissionService = admissionService;
+        this.eventHub = eventHub;
+        this.fileBlobs = fileBlobs;
+        this.accessTracker = accessTracker;
+        this.fileExporter = fileExporter;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
     }
@@ -48,28 +85,133 @@ public class FilesController {
             @RequestHeader("Authorization") String authHeader) {
 
         UUID userId = extractUserIdFromToken(authHeader);
-        ExtractTextResponse response = fileService.saveAndExtract(file, userId);
-        return ResponseEntity.ok(response);
+        try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.Endpoint.UPLOAD, userId)) {
+            ExtractTextResponse response = fileService.saveAndExtract(file, userId);
+            return ResponseEntity.ok(response);
+        }
+    }
+
+    @PostMapping("/ask")
+    public ResponseEntity<AskResponse> ask(@RequestBody AskRequest request,
+                                           @RequestHeader("Authorization") String authHeader) {
+        UUID userId = extractUserIdFromToken(authHeader);
+        return ResponseEntity.ok(askService.ask(userId, request.question(), request.topK()));
     }
 
     @GetMapping
-    public List<FileItemProjection> getUserFiles(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<FileItemProjection>> getUserFiles(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         UUID userId = extractUserIdFromToken(authHeader);
-        return fileService.getUserFiles(userId);
+
+        // Tag is taken before the query so a concurrent change can only make it too old, never too new
+        String etag = fileVersions.listingEtag(userId);
+        if (fileVersions.unchanged(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag).body(fileService.getUserFiles(userId));
+    }
+
+    /**
+     * Server-Sent Events stream of the caller's file changes ({@code event: file}, JSON data with fileId,
+     * kind, status and the new ETag), replacing polling of GET /{fileId}. Browsers' EventSource cannot send
+     * the Authorization header, so clients open it with a fetch-based SSE reader.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@RequestHeader("Authorization") String authHeader) {
+        UUID userId = extractUserIdFromToken(authHeader);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // keep reverse proxies from buffering the stream
+                .body(eventHub.subscribe(userId));
+    }
+
+    /**
+     * Everything the user has uploaded (originals, extracted text, summaries) as one ZIP, streamed
+     * as it is read; the response is committed as soon as the first bytes go out.
+     */
+    @GetMapping("/export")
+    public void exportFiles(@RequestHeader("Authorization") String authHeader,
+                            HttpServletResponse response) throws IOException {
+        UUID userId = extractUserIdFromToken(authHeader);
+        try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.Endpoint.EXPORT, userId)) {
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("slidesage-export.zip").build().toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            fileExporter.writeZip(userId, response.getOutputStream());
+        }
     }
 
     @GetMapping("/{fileId}")
-    public FileDetailResp getFileDetails(@PathVariable UUID fileId,
-                                         @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<FileDetailResp> getFileDetails(
+            @PathVariable UUID fileId,
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         UUID userId = extractUserIdFromToken(authHeader);
-        return fileService.getFileDetails(fileId, userId);
+
+        // A tag only exists for a file whose owner was confirmed, so a match is an owned file
+        String current = fileVersions.fileEtag(userId, fileId);
+        if (fileVersions.unchanged(ifNoneMatch, current)) {
+            accessTracker.touch(fileId);
+            return notModified(current);
+        }
+
+        long version = fileVersions.fileVersion(fileId);
+        FileDetailResp response = fileService.getFileDetails(fileId, userId);
+        fileVersions.track(userId, fileId, version);
+        accessTracker.touch(fileId);
+        return revalidated(fileVersions.fileTag(version)).body(response);
+    }
+
+    /** The original PDF; an archived file is rehydrated on the way. */
+    @GetMapping("/{fileId}/content")
+    public ResponseEntity<byte[]> downloadFile(@PathVariable UUID fileId,
+                                               @RequestHeader("Authorization") String authHeader) {
+        UUID userId = extractUserIdFromToken(authHeader);
+        FileItemProjection item = fileService.getFileItem(fileId, userId);
+        accessTracker.touch(fileId);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(item.getFilename(), StandardCharsets.UTF_8).build().toString())
+                .body(fileBlobs.load(fileId));
+    }
+
+    // no-cache (instead of Spring Security's default no-store) lets browsers keep the body and revalidate
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
     }
 
     @PostMapping("/{id}/summary")
     public ResponseEntity<FileDetailResp> generateSummary(@PathVariable UUID id,
                                                           @RequestHeader("Authorization") String authHeader) {
         UUID userId = extractUserIdFromToken(authHeader);
-        FileDetailResp response = fileService.generateSummary(id, userId);
-        return ResponseEntity.ok(response);
+        try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.Endpoint.SUMMARY, userId)) {
+            FileDetailResp response = fileService.generateSummary(id, userId);
+            accessTracker.touch(id);
+            return ResponseEntity.ok(response);
+        }
+    }
+
+    @PostMapping("/{id}/quiz")
+    public ResponseEntity<FileDetailResp> generateQuiz(@PathVariable UUID id,
+                                                       @RequestHeader("Authorization") String authHeader) {
+        UUID userId = extractUserIdFromToken(authHeader);
+        quizService.startQuiz(id, userId);
+        FileDetailResp response = fileService.getFileDetails(id, userId);
+        accessTracker.touch(id);
+        // Generation continues in the background; clients follow quizStatus
+        return ResponseEntity.accepted().body(response);
     }
 }
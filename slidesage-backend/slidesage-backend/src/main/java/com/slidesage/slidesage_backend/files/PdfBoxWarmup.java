@@ -0,0 +1,147 @@
+package com.slidesage.slidesage_backend.files;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pays PDFBox's one-off costs in the background at startup instead of on the first upload:
+ * the system font scan behind {@code FontMapper} and the first {@code PDFTextStripper} run.
+ * <p>
+ * The font cache is written to {@code pdfbox.font-cache-dir} so later restarts only validate it.
+ * Until warm-up finishes the application's readiness stays REFUSING_TRAFFIC (so the readiness probe
+ * fails and no traffic is routed here), and this reports OUT_OF_SERVICE on {@code /actuator/health}.
+ */
+@Component
+public class PdfBoxWarmup implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfBoxWarmup.class);
+
+    private final PdfTextExtractor textExtractor;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+
+    private volatile boolean done;
+    private volatile long fontMillis = -1;
+    private volatile long sampleMillis = -1;
+    private volatile String error;
+
+    public PdfBoxWarmup(PdfTextExtractor textExtractor,
+                        MeterRegistry meterRegistry,
+                        ApplicationEventPublisher events,
+                        @Value("${pdfbox.warmup.enabled:true}") boolean enabled,
+                        @Value("${pdfbox.font-cache-dir:}") String fontCacheDir) {
+        this.textExtractor = textExtractor;
+        this.meterRegistry = meterRegistry;
+        this.events = events;
+        this.enabled = enabled;
+        this.done = !enabled;
+
+        // Must be set before FontMappers is first touched; PDFBox reads it once
+        if (!fontCacheDir.isBlank() && System.getProperty("pdfbox.fontcache") == null) {
+            try {
+                Files.createDirectories(Path.of(fontCacheDir));
+                System.setProperty("pdfbox.fontcache", fontCacheDir);
+            } catch (IOException e) {
+                log.warn("Cannot use {} as PDFBox font cache directory, using PDFBox's default", fontCacheDir, e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!enabled) return;
+        Thread.ofPlatform().name("pdfbox-warmup").daemon().start(this::warmUp);
+    }
+
+    /**
+     * Boot declares the application ACCEPTING_TRAFFIC right after the ready listeners have run, so an
+     * unfinished warm-up takes that back. Readiness is checked again afterwards in case warm-up
+     * finished (and announced ACCEPTING_TRAFFIC) in between.
+     */
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || done) return;
+        AvailabilityChangeEvent.publish(events, this, ReadinessState.REFUSING_TRAFFIC);
+        if (done) AvailabilityChangeEvent.publish(events, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    void warmUp() {
+        try {
+            long t0 = System.nanoTime();
+            // Builds (or loads from the cache file) the system font index
+            FontMappers.instance().getFontBoxFont("Helvetica", null);
+            long t1 = System.nanoTime();
+            textExtractor.extract(samplePdf());
+            long t2 = System.nanoTime();
+
+            fontMillis = TimeUnit.NANOSECONDS.toMillis(t1 - t0);
+            sampleMillis = TimeUnit.NANOSECONDS.toMillis(t2 - t1);
+            Timer.builder("pdfbox.warmup").tag("phase", "fonts").register(meterRegistry).record(t1 - t0, TimeUnit.NANOSECONDS);
+            Timer.builder("pdfbox.warmup").tag("phase", "sample").register(meterRegistry).record(t2 - t1, TimeUnit.NANOSECONDS);
+            log.info("PDFBox warm-up finished: font cache {} ms, sample extraction {} ms", fontMillis, sampleMillis);
+        } catch (Exception e) {
+            // A failed warm-up only means the first real upload pays the cost again
+            error = e.getMessage();
+            log.warn("PDFBox warm-up failed", e);
+        } finally {
+            done = true;
+            AvailabilityChangeEvent.publish(events, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    // A small slide-like document; standard-14 fonts are not embedded, so loading them goes through the FontMapper
+    private static byte[] samplePdf() throws IOException {
+        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                cs.beginText();
+                cs.setFont(font, 12);
+                cs.newLineAtOffset(50, 740);
+                cs.showText("SlideSage warm-up");
+                cs.newLineAtOffset(0, -16);
+                cs.showText("Lecture 1 - Introduction");
+                cs.endText();
+            }
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (!done) {
+            return Health.outOfService().withDetail("pdfbox", "warming up").build();
+        }
+        Health.Builder builder = Health.up()
+                .withDetail("fontCacheMs", fontMillis)
+                .withDetail("sampleExtractionMs", sampleMillis);
+        if (error != null) builder.withDetail("warmupError", error);
+        return builder.build();
+    }
+}
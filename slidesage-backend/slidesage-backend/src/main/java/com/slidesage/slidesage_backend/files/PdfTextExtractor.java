@@ -0,0 +1,50 @@
+package com.slidesage.slidesage_backend.files;
+
+import com.slidesage.slidesage_backend.files.exception.ExtractionFailedException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PdfTextExtractor {
+
+    /**
+     * Stored with every extraction. Bump it whenever the output changes (normalize rules, PDFBox upgrade)
+     * so the extraction backfill reprocesses older rows.
+     */
+    public static final int VERSION = 1;
+
+    private final ExtractionGovernor governor;
+
+    public PdfTextExtractor(ExtractionGovernor governor) {
+        this.governor = governor;
+    }
+
+    public String extract(byte[] bytes) {
+        long estimate = governor.estimate(bytes.length, 0);
+        try (ExtractionGovernor.Lease lease = governor.acquire(estimate)) {
+            // Large documents keep PDFBox's decoded streams in temp files instead of on the heap
+            var scratch = governor.useTempFile(estimate)
+                    ? IOUtils.createTempFileOnlyStreamCache()
+                    : IOUtils.createMemoryOnlyStreamCache();
+
+            try (PDDocument doc = Loader.loadPDF(bytes, "", null, null, scratch)) {
+                lease.resize(governor.estimate(bytes.length, doc.getNumberOfPages()));
+                PDFTextStripper stripper = new PDFTextStripper();
+                return normalize(stripper.getText(doc));
+            } catch (Exception e) {
+                throw new ExtractionFailedException("Failed to extract text from PDF.", e);
+            }
+        }
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        String unified = s.replace("\r\n", "\n");
+        unified = unified.replaceAll("\n{3,}", "\n\n");  // collapse >2 newlines
+        unified = unified.replaceAll("[ \\t]{2,}", " "); // collapse long spaces/tabs
+        return unified.trim();
+    }
+}
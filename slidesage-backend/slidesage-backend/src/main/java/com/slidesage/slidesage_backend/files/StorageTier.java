@@ -0,0 +1,4 @@
+package com.slidesage.slidesage_backend.files;
+
+/** Where a file's original bytes live: in the {@code files} row, or compressed in the archive directory. */
+public enum StorageTier { HOT, ARCHIVED }
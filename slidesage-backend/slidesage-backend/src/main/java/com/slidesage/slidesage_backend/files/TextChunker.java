@@ -0,0 +1,55 @@
+package com.slidesage.slidesage_backend.files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits extracted text into chunks of at most {@code maxChars}, preferring paragraph and line
+ * boundaries. Deterministic, so the same text always yields the same chunks.
+ */
+public final class TextChunker {
+
+    public static final int DEFAULT_CHUNK_CHARS = 4000;
+
+    private TextChunker() {}
+
+    public static List<String> chunk(String text, int maxChars) {
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.isBlank()) return chunks;
+
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : text.split("\n\n")) {
+            if (paragraph.isBlank()) continue;
+
+            if (current.length() > 0 && current.length() + 2 + paragraph.length() > maxChars) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+
+            if (paragraph.length() > maxChars) {
+                // A single paragraph larger than a chunk: cut at the last newline/space before the limit
+                String rest = paragraph;
+                while (rest.length() > maxChars) {
+                    int cut = lastBreak(rest, maxChars);
+                    chunks.add(rest.substring(0, cut).trim());
+                    rest = rest.substring(cut).trim();
+                }
+                current.append(rest);
+                continue;
+            }
+
+            if (current.length() > 0) current.append("\n\n");
+            current.append(paragraph);
+        }
+        if (current.length() > 0) chunks.add(current.toString());
+        return chunks;
+    }
+
+    private static int lastBreak(String s, int maxChars) {
+        int nl = s.lastIndexOf('\n', maxChars);
+        if (nl > maxChars / 2) return nl;
+        int sp = s.lastIndexOf(' ', maxChars);
+        if (sp > maxChars / 2) return sp;
+        return maxChars;
+    }
+}
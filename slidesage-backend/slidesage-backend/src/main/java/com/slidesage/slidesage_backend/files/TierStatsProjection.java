@@ -0,0 +1,8 @@
+package com.slidesage.slidesage_backend.files;
+
+public interface TierStatsProjection {
+    StorageTier getTier();
+    long getFiles();
+    long getOriginalBytes();   // uncompressed PDF bytes
+    long getArchivedBytes();   // bytes on disk in the archive
+}
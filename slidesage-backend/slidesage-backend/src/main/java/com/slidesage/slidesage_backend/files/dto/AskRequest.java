@@ -0,0 +1,6 @@
+package com.slidesage.slidesage_backend.files.dto;
+
+public record AskRequest(
+        String question,
+        Integer topK
+) {}
@@ -0,0 +1,17 @@
+package com.slidesage.slidesage_backend.files.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record AskResponse(
+        String answer,
+        List<Source> sources
+) {
+
+    public record Source(
+            UUID fileId,
+            String filename,
+            int chunkIndex,
+            float score
+    ) {}
+}
@@ -14,6 +14,7 @@ public class FileDetailResp {
     private String summary;
     private TextStatus summaryStatus;  // can reuse enum if statuses are the same
     private TextStatus quizStatus;
+    private QuizResp quiz;
     private String contentType;
     private long size;
 
@@ -25,7 +26,9 @@ public class FileDetailResp {
             Instant updatedAt,
             String summary,
             String contentType,
-            long size
+            long size,
+            TextStatus quizStatus,
+            QuizResp quiz
     ) {
         this.id = id;
         this.textStatus = textStatus;
@@ -35,6 +38,8 @@ public class FileDetailResp {
         this.summary = summary;
         this.contentType = contentType;
         this.size = size;
+        this.quizStatus = quizStatus != null ? quizStatus : TextStatus.NONE;
+        this.quiz = quiz;
 
         // optionally, compute these from stored values later
         this.summaryStatus = summary != null ? TextStatus.READY : TextStatus.NONE;
@@ -50,6 +55,7 @@ public class FileDetailResp {
     public String getSummary() { return summary; }
     public TextStatus getSummaryStatus() { return summaryStatus; }
     public TextStatus getQuizStatus() { return quizStatus; }
+    public QuizResp getQuiz() { return quiz; }
     public String getContentType() { return contentType; }
     public long getSize() { return size; }
 }
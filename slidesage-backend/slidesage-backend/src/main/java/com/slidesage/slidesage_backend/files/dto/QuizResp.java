@@ -0,0 +1,14 @@
+package com.slidesage.slidesage_backend.files.dto;
+
+import java.util.List;
+
+public record QuizResp(List<Question> questions) {
+
+    public record Question(
+            long id,
+            String question,
+            List<String> options,
+            int correctAnswer,
+            String explanation
+    ) {}
+}
@@ -0,0 +1,96 @@
+package com.slidesage.slidesage_backend.llm;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class GeminiClient implements LlmClient {
+
+    private final String apiKey;
+    private final String endpoint;
+    private final long acquireTimeoutMs;
+
+    // Shared by summaries, quiz sections and anything else that calls Gemini
+    private final Semaphore permits;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public GeminiClient(@Value("${gemini.api.key}") String apiKey,
+                        // Overridable so load tests can point at a local stub server
+                        @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent}") String endpoint,
+                        @Value("${gemini.max-concurrency:4}") int maxConcurrency,
+                        @Value("${gemini.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.apiKey = apiKey.trim();
+        this.endpoint = endpoint;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public String generate(String prompt) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new LlmBusyException("Timed out waiting for a Gemini slot");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmException("Interrupted while waiting for a Gemini slot", e);
+        }
+
+        try {
+            return call(prompt);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private String call(String prompt) {
+        JSONObject part = new JSONObject().put("text", prompt);
+        JSONObject payload = new JSONObject()
+                .put("contents", new JSONArray().put(new JSONObject().put("parts", new JSONArray().put(part))));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .header("x-goog-api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmException("Interrupted while calling Gemini", e);
+        } catch (Exception e) {
+            throw new LlmException("Gemini request failed: " + e.getMessage(), e);
+        }
+
+        if (response.statusCode() != 200) {
+            throw new LlmException("Gemini API returned " + response.statusCode() + ": " + response.body());
+        }
+
+        JSONObject json = new JSONObject(response.body());
+        return json
+                .getJSONArray("candidates")
+                .getJSONObject(0)
+                .getJSONObject("content")
+                .getJSONArray("parts")
+                .getJSONObject(0)
+                .getString("text")
+                .trim();
+    }
+}
@@ -0,0 +1,10 @@
+package com.slidesage.slidesage_backend.llm;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** All Gemini slots stayed taken for the whole acquire timeout; the caller may retry later. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LlmBusyException extends LlmException {
+    public LlmBusyException(String msg) { super(msg); }
+}
@@ -0,0 +1,10 @@
+package com.slidesage.slidesage_backend.llm;
+
+/**
+ * Text-in/text-out access to the upstream model. Implementations are responsible for
+ * enforcing the shared upstream concurrency limit.
+ */
+public interface LlmClient {
+
+    String generate(String prompt);
+}
@@ -0,0 +1,10 @@
+package com.slidesage.slidesage_backend.llm;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class LlmException extends RuntimeException {
+    public LlmException(String msg) { super(msg); }
+    public LlmException(String msg, Throwable cause) { super(msg, cause); }
+}
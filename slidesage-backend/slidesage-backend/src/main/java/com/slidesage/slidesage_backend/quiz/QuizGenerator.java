@@ -0,0 +1,140 @@
+package com.slidesage.slidesage_backend.quiz;
+
+import com.slidesage.slidesage_backend.files.TextChunker;
+import com.slidesage.slidesage_backend.llm.LlmClient;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Turns extracted text into quiz questions, one LLM call per section.
+ * Sections are the text chunks, so each prompt carries one chunk instead of the whole document.
+ */
+@Component
+public class QuizGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizGenerator.class);
+
+    public record Draft(int section, String question, List<String> options, int correctAnswer, String explanation) {}
+
+    private final LlmClient llm;
+    private final int chunkChars;
+    private final int maxSections;
+    private final int questionsPerSection;
+
+    public QuizGenerator(LlmClient llm,
+                         @Value("${quiz.chunk-chars:" + TextChunker.DEFAULT_CHUNK_CHARS + "}") int chunkChars,
+                         @Value("${quiz.max-sections:5}") int maxSections,
+                         @Value("${quiz.questions-per-section:2}") int questionsPerSection) {
+        this.llm = llm;
+        this.chunkChars = chunkChars;
+        this.maxSections = maxSections;
+        this.questionsPerSection = questionsPerSection;
+    }
+
+    /**
+     * Generates all sections in parallel on {@code executor}; the upstream limit is enforced by the {@link LlmClient}.
+     * A failed section is skipped, but if every section fails the whole generation fails.
+     */
+    public List<Draft> generate(String text, Executor executor) {
+        List<String> sections = pickSections(TextChunker.chunk(text, chunkChars));
+
+        List<CompletableFuture<List<Draft>>> futures = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            int section = i;
+            String chunk = sections.get(i);
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> parse(section, llm.generate(prompt(chunk))), executor)
+                    .exceptionally(e -> {
+                        log.warn("Quiz section {} failed: {}", section, e.getMessage());
+                        return null;
+                    }));
+        }
+
+        List<Draft> drafts = new ArrayList<>();
+        int failed = 0;
+        for (CompletableFuture<List<Draft>> f : futures) {
+            List<Draft> result = f.join();
+            if (result == null) failed++;
+            else drafts.addAll(result);
+        }
+        if (!sections.isEmpty() && failed == sections.size()) {
+            throw new IllegalStateException("All quiz sections failed.");
+        }
+        return drafts;
+    }
+
+    // Spread the sections over the whole document when there are more chunks than we want to pay for
+    private List<String> pickSections(List<String> chunks) {
+        if (chunks.size() <= maxSections) return chunks;
+        List<String> picked = new ArrayList<>(maxSections);
+        for (int i = 0; i < maxSections; i++) {
+            picked.add(chunks.get(i * chunks.size() / maxSections));
+        }
+        return picked;
+    }
+
+    private String prompt(String chunk) {
+        return "Write " + questionsPerSection + " multiple-choice questions about the following lecture slides. "
+                + "Answer only with a JSON array where each element has the fields "
+                + "\"question\" (string), \"options\" (array of 4 strings), \"answer\" (index of the correct option) "
+                + "and \"explanation\" (one sentence).\n\nSlides:\n" + chunk;
+    }
+
+    static List<Draft> parse(int section, String raw) {
+        String json = raw.trim();
+        // Models like to wrap JSON in markdown fences
+        if (json.startsWith("```")) {
+            json = json.substring(json.indexOf('\n') + 1);
+            int end = json.lastIndexOf("```");
+            if (end >= 0) json = json.substring(0, end);
+        }
+        int start = json.indexOf('[');
+        int end = json.lastIndexOf(']');
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("No JSON array in quiz response.");
+        }
+
+        JSONArray array = new JSONArray(json.substring(start, end + 1));
+        List<Draft> drafts = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject q = array.optJSONObject(i);
+            if (q == null) continue;
+
+            JSONArray opts = q.optJSONArray("options");
+            String question = q.optString("question", "").trim();
+            if (question.isEmpty() || opts == null || opts.length() < 2) continue;
+
+            List<String> options = new ArrayList<>();
+            for (int o = 0; o < opts.length(); o++) {
+                // The separator would split one option into two when read back
+                options.add(opts.optString(o, "").replace(QuizQuestion.OPTION_SEPARATOR, " ").trim());
+            }
+
+            int answer = q.optInt("answer", -1);
+            if (answer < 0 || answer >= options.size()) continue;
+
+            // One row that doesn't fit its column would fail the insert, and with it the whole quiz
+            int optionChars = String.join(QuizQuestion.OPTION_SEPARATOR, options).length();
+            if (question.length() > QuizQuestion.MAX_QUESTION_CHARS || optionChars > QuizQuestion.MAX_OPTIONS_CHARS) {
+                log.warn("Skipping oversized quiz question in section {}", section);
+                continue;
+            }
+            String explanation = q.optString("explanation", null);
+            if (explanation != null && explanation.length() > QuizQuestion.MAX_EXPLANATION_CHARS) {
+                explanation = explanation.substring(0, QuizQuestion.MAX_EXPLANATION_CHARS - 1) + "…";
+            }
+
+            drafts.add(new Draft(section, question, options, answer, explanation));
+        }
+        return drafts;
+    }
+}
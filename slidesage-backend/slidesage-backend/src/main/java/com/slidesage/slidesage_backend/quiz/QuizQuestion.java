@@ -0,0 +1,62 @@
+package com.slidesage.slidesage_backend.quiz;
+
+import jakarta.persistence.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One generated multiple-choice question. Options are packed into a single column
+ * (unit-separator delimited) to keep the table to one narrow row per question.
+ */
+@Entity
+@Table(name = "quiz_questions", indexes = @Index(name = "idx_quiz_questions_file", columnList = "file_id"))
+public class QuizQuestion {
+
+    static final String OPTION_SEPARATOR = "\u001F";
+    static final int MAX_QUESTION_CHARS = 1000;
+    static final int MAX_OPTIONS_CHARS = 2000;
+    static final int MAX_EXPLANATION_CHARS = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_id", nullable = false)
+    private UUID fileId;
+
+    @Column(nullable = false)
+    private short position;
+
+    @Column(nullable = false, length = MAX_QUESTION_CHARS)
+    private String question;
+
+    @Column(nullable = false, length = MAX_OPTIONS_CHARS)
+    private String options;
+
+    @Column(nullable = false)
+    private short correctAnswer;
+
+    @Column(length = MAX_EXPLANATION_CHARS)
+    private String explanation;
+
+    public QuizQuestion() {}
+
+    public QuizQuestion(UUID fileId, int position, String question, List<String> options,
+                        int correctAnswer, String explanation) {
+        this.fileId = fileId;
+        this.position = (short) position;
+        this.question = question;
+        this.options = String.join(OPTION_SEPARATOR, options);
+        this.correctAnswer = (short) correctAnswer;
+        this.explanation = explanation;
+    }
+
+    public Long getId() { return id; }
+    public UUID getFileId() { return fileId; }
+    public int getPosition() { return position; }
+    public String getQuestion() { return question; }
+    public List<String> getOptions() { return Arrays.asList(options.split(OPTION_SEPARATOR, -1)); }
+    public int getCorrectAnswer() { return correctAnswer; }
+    public String getExplanation() { return explanation; }
+}
@@ -0,0 +1,18 @@
+package com.slidesage.slidesage_backend.quiz;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface QuizQuestionRepository extends JpaRepository<QuizQuestion, Long> {
+
+    List<QuizQuestion> findAllByFileIdOrderByPositionAsc(UUID fileId);
+
+    @Modifying
+    @Query("delete from QuizQuestion q where q.fileId = :fileId")
+    void deleteAllByFileId(@Param("fileId") UUID fileId);
+}
@@ -0,0 +1,130 @@
+package com.slidesage.slidesage_backend.quiz;
+
+import com.slidesage.slidesage_backend.events.FileEvent;
+import com.slidesage.slidesage_backend.files.FileDetailProjection;
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.FileVersions;
+import com.slidesage.slidesage_backend.files.TextStatus;
+import com.slidesage.slidesage_backend.files.dto.QuizResp;
+import com.slidesage.slidesage_backend.files.exception.BadRequestException;
+import com.slidesage.slidesage_backend.files.exception.FileNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs quiz generation as a background job per file and reports progress through {@code quizStatus}:
+ * PENDING while running, then READY, EMPTY (nothing usable came back) or ERROR.
+ * <p>
+ * PENDING is claimed with a conditional update and carries its start time. A PENDING older than
+ * {@code quiz.pending-timeout-minutes} belongs to a job that died with its process: it is failed at
+ * startup and may be claimed again by the next request.
+ */
+@Service
+public class QuizService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizService.class);
+
+    private final FileRepository fileRepository;
+    private final QuizQuestionRepository questionRepository;
+    private final QuizGenerator generator;
+    private final TransactionTemplate tx;
+    private final FileVersions fileVersions;
+    private final Duration pendingTimeout;
+
+    // Jobs and their sections mostly wait on the LLM, so a thread per task is cheap
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QuizService(FileRepository fileRepository, QuizQuestionRepository questionRepository,
+                       QuizGenerator generator, TransactionTemplate tx, FileVersions fileVersions,
+                       @Value("${quiz.pending-timeout-minutes:10}") long pendingTimeoutMinutes) {
+        this.fileRepository = fileRepository;
+        this.questionRepository = questionRepository;
+        this.generator = generator;
+        this.tx = tx;
+        this.fileVersions = fileVersions;
+        this.pendingTimeout = Duration.ofMinutes(pendingTimeoutMinutes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failStaleJobs() {
+        int failed = fileRepository.failStaleQuizzes(Instant.now().minus(pendingTimeout));
+        if (failed > 0) log.info("Marked {} abandoned quiz jobs as ERROR", failed);
+    }
+
+    /**
+     * Marks the quiz PENDING and starts generation in the background. A request while a live job is
+     * running for the file is a no-op.
+     */
+    public void startQuiz(UUID fileId, UUID userId) {
+        FileDetailProjection file = fileRepository.findByIdAndUserId(fileId, userId)
+                .orElseThrow(() -> new FileNotFoundException(fileId));
+
+        String text = file.getExtractedText();
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("No extracted text available for quiz generation.");
+        }
+
+        // Millisecond precision so the value compares equal after a round trip through the database
+        Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (fileRepository.claimQuiz(fileId, startedAt, startedAt.minus(pendingTimeout)) == 0) return;
+
+        fileVersions.fileChanged(userId, fileId, FileEvent.Kind.QUIZ, TextStatus.PENDING);
+        executor.submit(() -> run(fileId, userId, text, startedAt));
+    }
+
+    private void run(UUID fileId, UUID userId, String text, Instant startedAt) {
+        TextStatus outcome;
+        try {
+            List<QuizGenerator.Draft> drafts = generator.generate(text, executor);
+
+            List<QuizQuestion> questions = new ArrayList<>(drafts.size());
+            for (int i = 0; i < drafts.size(); i++) {
+                QuizGenerator.Draft d = drafts.get(i);
+                questions.add(new QuizQuestion(fileId, i, d.question(), d.options(), d.correctAnswer(), d.explanation()));
+            }
+
+            TextStatus ready = questions.isEmpty() ? TextStatus.EMPTY : TextStatus.READY;
+            boolean stillOwned = Boolean.TRUE.equals(tx.execute(status -> {
+                if (fileRepository.completeQuiz(fileId, ready, startedAt) == 0) return false;
+                questionRepository.deleteAllByFileId(fileId);
+                questionRepository.saveAll(questions);
+                return true;
+            }));
+            if (!stillOwned) return;
+            outcome = ready;
+        } catch (Exception e) {
+            log.warn("Quiz generation failed for file {}", fileId, e);
+            outcome = TextStatus.ERROR;
+            if (fileRepository.completeQuiz(fileId, outcome, startedAt) == 0) return;
+        }
+        fileVersions.fileChanged(userId, fileId, FileEvent.Kind.QUIZ, outcome);
+    }
+
+    public QuizResp getQuiz(UUID fileId) {
+        List<QuizResp.Question> questions = questionRepository.findAllByFileIdOrderByPositionAsc(fileId).stream()
+                .map(q -> new QuizResp.Question(q.getId(), q.getQuestion(), q.getOptions(),
+                        q.getCorrectAnswer(), q.getExplanation()))
+                .toList();
+        return new QuizResp(questions);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.FileTextProjection;
+import com.slidesage.slidesage_backend.files.TextChunker;
+import com.slidesage.slidesage_backend.files.dto.AskResponse;
+import com.slidesage.slidesage_backend.files.exception.BadRequestException;
+import com.slidesage.slidesage_backend.llm.LlmClient;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers a question from the most relevant chunks of the user's slides rather than whole documents.
+ */
+@Service
+public class AskService {
+
+    private static final int DEFAULT_TOP_K = 5;
+    private static final int MAX_TOP_K = 20;
+
+    private final UserIndexStore indexStore;
+    private final FileRepository fileRepository;
+    private final LlmClient llmClient;
+
+    public AskService(UserIndexStore indexStore, FileRepository fileRepository, LlmClient llmClient) {
+        this.indexStore = indexStore;
+        this.fileRepository = fileRepository;
+        this.llmClient = llmClient;
+    }
+
+    public AskResponse ask(UUID userId, String question, Integer topK) {
+        if (question == null || question.isBlank()) {
+            throw new BadRequestException("Question must not be empty.");
+        }
+        int k = topK == null ? DEFAULT_TOP_K : Math.max(1, Math.min(topK, MAX_TOP_K));
+
+        List<HnswIndex.Hit> hits = indexStore.search(userId, question, k);
+        if (hits.isEmpty()) {
+            return new AskResponse("None of your files contain text that matches this question.", List.of());
+        }
+
+        // Only the files that own a hit are loaded; their chunks are rebuilt the same way they were indexed
+        Set<UUID> fileIds = hits.stream().map(HnswIndex.Hit::fileId).collect(Collectors.toSet());
+        Map<UUID, FileTextProjection> files = fileRepository.findAllByIdInAndUserId(fileIds, userId).stream()
+                .collect(Collectors.toMap(FileTextProjection::getId, Function.identity()));
+        Map<UUID, List<String>> chunksByFile = new HashMap<>();
+
+        StringBuilder context = new StringBuilder();
+        List<AskResponse.Source> sources = new ArrayList<>();
+        for (HnswIndex.Hit hit : hits) {
+            FileTextProjection file = files.get(hit.fileId());
+            if (file == null) continue; // stale index entry
+
+            List<String> chunks = chunksByFile.computeIfAbsent(hit.fileId(),
+                    id -> TextChunker.chunk(file.getExtractedText(), indexStore.chunkChars()));
+            if (hit.chunkIndex() >= chunks.size()) continue;
+
+            context.append("[").append(sources.size() + 1).append("] ")
+                    .append(file.getFilename()).append(":\n")
+                    .append(chunks.get(hit.chunkIndex())).append("\n\n");
+            sources.add(new AskResponse.Source(hit.fileId(), file.getFilename(), hit.chunkIndex(), hit.score()));
+        }
+
+        if (sources.isEmpty()) {
+            return new AskResponse("None of your files contain text that matches this question.", List.of());
+        }
+
+        String prompt = "Answer the question using only the numbered excerpts from the user's lecture slides. "
+                + "Cite excerpts like [1]. If the excerpts do not contain the answer, say so.\n\n"
+                + context
+                + "Question: " + question.trim();
+        return new AskResponse(llmClient.generate(prompt), sources);
+    }
+}
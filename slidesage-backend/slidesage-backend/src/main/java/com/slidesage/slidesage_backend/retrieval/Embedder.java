@@ -0,0 +1,16 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+/**
+ * Local text embedder. Vectors must be L2-normalised so the index can rank by dot product.
+ */
+public interface Embedder {
+
+    int dimension();
+
+    float[] embed(String text);
+
+    /** Stored with persisted indexes so vectors from a different embedder are never mixed. */
+    default String id() {
+        return getClass().getSimpleName() + "-" + dimension();
+    }
+}
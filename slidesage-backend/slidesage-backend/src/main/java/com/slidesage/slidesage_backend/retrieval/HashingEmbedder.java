@@ -0,0 +1,64 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Deterministic feature-hashing embedder over word unigrams and bigrams.
+ * No model files, so it is the default and the one used in tests; register another
+ * {@link Embedder} bean marked {@code @Primary} to replace it.
+ */
+@Component
+public class HashingEmbedder implements Embedder {
+
+    private final int dimension;
+
+    public HashingEmbedder(@Value("${retrieval.dimension:256}") int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] v = new float[dimension];
+        if (text == null) return v;
+
+        String previous = null;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() < 2) continue;
+            add(v, token, 1.0f);
+            if (previous != null) add(v, previous + ' ' + token, 0.5f);
+            previous = token;
+        }
+
+        double norm = 0;
+        for (float x : v) norm += x * x;
+        if (norm > 0) {
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < v.length; i++) v[i] *= inv;
+        }
+        return v;
+    }
+
+    private void add(float[] v, String feature, float weight) {
+        int h = mix(feature.hashCode());
+        int bucket = Math.floorMod(h, dimension);
+        // the sign bit keeps colliding features from always adding up
+        v[bucket] += (h & 0x40000000) == 0 ? weight : -weight;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
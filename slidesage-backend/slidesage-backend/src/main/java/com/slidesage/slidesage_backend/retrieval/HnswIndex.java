@@ -0,0 +1,425 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index (HNSW) over unit vectors, ranked by dot product.
+ * <p>
+ * Vectors live in a direct (off-heap) buffer; the graph and per-node metadata (file id, chunk index,
+ * tombstone) stay on heap. Re-indexing a file tombstones its old nodes instead of unlinking them, so
+ * inserts stay incremental; {@link #compacted} rebuilds without them once they pile up. One instance holds
+ * one user's chunks.
+ */
+public class HnswIndex {
+
+    public record Hit(UUID fileId, int chunkIndex, float score) {}
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT = 2;
+    private static final String VECTORS_FILE = "vectors.f32";
+    private static final String GRAPH_FILE = "graph.bin";
+
+    private final String embedderId;
+    private final int dim;
+    private final int m;
+    private final int mMax0;
+    private final int efConstruction;
+    private final double levelMult;
+    private final Random random = new Random(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock persistLock = new ReentrantLock();
+
+    private ByteBuffer vectorBytes;
+    private FloatBuffer vectors;
+    private int size;
+    private long[] fileMost;
+    private long[] fileLeast;
+    private int[] chunks;
+    private int[][][] links;   // links[node][level] -> neighbour ids
+    private final BitSet deleted = new BitSet();
+    private int live;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(String embedderId, int dim, int m, int efConstruction) {
+        this.embedderId = embedderId;
+        this.dim = dim;
+        this.m = m;
+        this.mMax0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMult = 1.0 / Math.log(m);
+        allocate(64);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of tombstoned nodes still taking space in the graph and the vector buffer. */
+    public int tombstones() {
+        lock.readLock().lock();
+        try {
+            return size - live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Files with at least one live chunk. */
+    public Set<UUID> fileIds() {
+        lock.readLock().lock();
+        try {
+            Set<UUID> ids = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                if (!deleted.get(i)) ids.add(new UUID(fileMost[i], fileLeast[i]));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(UUID fileId, int chunkIndex, float[] vector) {
+        if (vector.length != dim) throw new IllegalArgumentException("Expected dimension " + dim);
+
+        lock.writeLock().lock();
+        try {
+            int id = size;
+            if (id == chunks.length) allocate(chunks.length * 2);
+            vectors.put(id * dim, vector);
+            fileMost[id] = fileId.getMostSignificantBits();
+            fileLeast[id] = fileId.getLeastSignificantBits();
+            chunks[id] = chunkIndex;
+            size++;
+            live++;
+
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMult);
+            links[id] = new int[level + 1][];
+            Arrays.fill(links[id], new int[0]);
+
+            if (entryPoint < 0) {
+                entryPoint = id;
+                maxLevel = level;
+                return;
+            }
+
+            int cur = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                cur = greedyClosest(vector, cur, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Integer> candidates = searchLayer(vector, cur, efConstruction, l);
+                int cap = l == 0 ? mMax0 : m;
+                int[] neighbours = candidates.stream().limit(cap).mapToInt(Integer::intValue).toArray();
+                links[id][l] = neighbours;
+                for (int n : neighbours) connect(n, id, l, cap);
+                cur = candidates.get(0);
+            }
+
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = id;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Tombstones every chunk of {@code fileId}; tombstoned nodes still route searches but are never returned. */
+    public void removeFile(UUID fileId) {
+        lock.writeLock().lock();
+        try {
+            long most = fileId.getMostSignificantBits();
+            long least = fileId.getLeastSignificantBits();
+            for (int i = 0; i < size; i++) {
+                if (fileMost[i] == most && fileLeast[i] == least && !deleted.get(i)) {
+                    deleted.set(i);
+                    live--;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A new index holding only the live chunks, re-inserted in their original order. This index is left
+     * untouched, so searches can keep using it until the caller swaps the copy in.
+     */
+    public HnswIndex compacted() {
+        lock.readLock().lock();
+        try {
+            HnswIndex fresh = new HnswIndex(embedderId, dim, m, efConstruction);
+            fresh.allocate(Math.max(64, Integer.highestOneBit(Math.max(1, live)) * 2));
+            for (int i = 0; i < size; i++) {
+                if (deleted.get(i)) continue;
+                fresh.add(new UUID(fileMost[i], fileLeast[i]), chunks[i], vectorOf(i));
+            }
+            return fresh;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> search(float[] query, int k, int efSearch) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || live == 0) return List.of();
+
+            int cur = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                cur = greedyClosest(query, cur, l);
+            }
+            List<Integer> candidates = searchLayer(query, cur, Math.max(efSearch, k), 0);
+
+            List<Hit> hits = new ArrayList<>(k);
+            for (int id : candidates) {
+                if (deleted.get(id)) continue;
+                hits.add(new Hit(new UUID(fileMost[id], fileLeast[id]), chunks[id], similarity(query, id)));
+                if (hits.size() == k) break;
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Graph internals ---
+
+    private int greedyClosest(float[] q, int start, int level) {
+        int cur = start;
+        float best = similarity(q, cur);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int n : neighbours(cur, level)) {
+                float s = similarity(q, n);
+                if (s > best) {
+                    best = s;
+                    cur = n;
+                    improved = true;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /** Best-first search on one layer; returns up to {@code ef} node ids, most similar first. */
+    private List<Integer> searchLayer(float[] q, int start, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Scored> frontier = new PriorityQueue<>(Comparator.comparingDouble(Scored::score).reversed());
+        PriorityQueue<Scored> results = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+
+        Scored first = new Scored(start, similarity(q, start));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Scored c = frontier.poll();
+            if (results.size() >= ef && c.score() < results.peek().score()) break;
+
+            for (int n : neighbours(c.id(), level)) {
+                if (visited.get(n)) continue;
+                visited.set(n);
+                float s = similarity(q, n);
+                if (results.size() < ef || s > results.peek().score()) {
+                    Scored next = new Scored(n, s);
+                    frontier.add(next);
+                    results.add(next);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+
+        List<Scored> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Scored::score).reversed());
+        List<Integer> ids = new ArrayList<>(ordered.size());
+        for (Scored s : ordered) ids.add(s.id());
+        return ids;
+    }
+
+    private void connect(int node, int newNeighbour, int level, int cap) {
+        int[] current = links[node][level];
+        int[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = newNeighbour;
+        if (grown.length > cap) {
+            // keep the cap closest neighbours of node
+            float[] base = vectorOf(node);
+            grown = Arrays.stream(grown).boxed()
+                    .sorted(Comparator.comparingDouble((Integer n) -> similarity(base, n)).reversed())
+                    .limit(cap)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        links[node][level] = grown;
+    }
+
+    private int[] neighbours(int node, int level) {
+        int[][] nodeLinks = links[node];
+        return level < nodeLinks.length ? nodeLinks[level] : new int[0];
+    }
+
+    private float similarity(float[] q, int id) {
+        int base = id * dim;
+        float dot = 0;
+        for (int i = 0; i < dim; i++) dot += q[i] * vectors.get(base + i);
+        return dot;
+    }
+
+    private float[] vectorOf(int id) {
+        float[] v = new float[dim];
+        vectors.get(id * dim, v);
+        return v;
+    }
+
+    private void allocate(int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity * dim * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (vectorBytes != null) {
+            ByteBuffer old = vectorBytes.duplicate();
+            old.clear().limit(size * dim * Float.BYTES);
+            grown.put(old).clear();
+        }
+        vectorBytes = grown;
+        vectors = grown.asFloatBuffer();
+
+        fileMost = fileMost == null ? new long[capacity] : Arrays.copyOf(fileMost, capacity);
+        fileLeast = fileLeast == null ? new long[capacity] : Arrays.copyOf(fileLeast, capacity);
+        chunks = chunks == null ? new int[capacity] : Arrays.copyOf(chunks, capacity);
+        links = links == null ? new int[capacity][][] : Arrays.copyOf(links, capacity);
+    }
+
+    private record Scored(int id, float score) {}
+
+    // --- Persistence ---
+
+    /**
+     * Writes the index into {@code dir}: raw vectors first, then the graph (which records how many
+     * vectors are valid), each through a temp file and an atomic move. Both files start with the same
+     * random generation, so a crash between the two moves leaves a pair that {@link #readFrom} rejects.
+     */
+    public void writeTo(Path dir) throws IOException {
+        persistLock.lock();
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(dir);
+            long generation = ThreadLocalRandom.current().nextLong();
+
+            Path vecTmp = dir.resolve(VECTORS_FILE + ".tmp");
+            try (FileChannel ch = FileChannel.open(vecTmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(Long.BYTES).putLong(generation).flip();
+                while (header.hasRemaining()) ch.write(header);
+                ByteBuffer slice = vectorBytes.duplicate();
+                slice.clear().limit(size * dim * Float.BYTES);
+                while (slice.hasRemaining()) ch.write(slice);
+                ch.force(false);
+            }
+            Files.move(vecTmp, dir.resolve(VECTORS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Path graphTmp = dir.resolve(GRAPH_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(graphTmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(generation);
+                out.writeUTF(embedderId);
+                out.writeInt(dim);
+                out.writeInt(m);
+                out.writeInt(efConstruction);
+                out.writeInt(size);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(fileMost[i]);
+                    out.writeLong(fileLeast[i]);
+                    out.writeInt(chunks[i]);
+                    out.writeBoolean(deleted.get(i));
+                    out.writeByte(links[i].length);
+                    for (int[] level : links[i]) {
+                        out.writeShort(level.length);
+                        for (int n : level) out.writeInt(n);
+                    }
+                }
+            }
+            Files.move(graphTmp, dir.resolve(GRAPH_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+            persistLock.unlock();
+        }
+    }
+
+    /**
+     * Loads an index written by {@link #writeTo}. Returns empty when nothing was persisted, it was
+     * built by a different embedder, or the two files come from different writes.
+     */
+    public static Optional<HnswIndex> readFrom(Path dir, String embedderId) throws IOException {
+        Path graph = dir.resolve(GRAPH_FILE);
+        Path vecs = dir.resolve(VECTORS_FILE);
+        if (!Files.exists(graph) || !Files.exists(vecs)) return Optional.empty();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(graph)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) return Optional.empty();
+            long generation = in.readLong();
+            if (!in.readUTF().equals(embedderId)) return Optional.empty();
+
+            int dim = in.readInt();
+            int m = in.readInt();
+            int efConstruction = in.readInt();
+            int size = in.readInt();
+
+            HnswIndex index = new HnswIndex(embedderId, dim, m, efConstruction);
+            index.allocate(Math.max(64, Integer.highestOneBit(Math.max(1, size)) * 2));
+            index.entryPoint = in.readInt();
+            index.maxLevel = in.readInt();
+
+            for (int i = 0; i < size; i++) {
+                index.fileMost[i] = in.readLong();
+                index.fileLeast[i] = in.readLong();
+                index.chunks[i] = in.readInt();
+                if (in.readBoolean()) index.deleted.set(i);
+                int levels = in.readByte();
+                index.links[i] = new int[levels][];
+                for (int l = 0; l < levels; l++) {
+                    int[] ns = new int[in.readShort()];
+                    for (int j = 0; j < ns.length; j++) ns[j] = in.readInt();
+                    index.links[i][l] = ns;
+                }
+            }
+            index.size = size;
+            index.live = size - index.deleted.cardinality();
+
+            long expected = (long) size * dim * Float.BYTES;
+            try (FileChannel ch = FileChannel.open(vecs, StandardOpenOption.READ)) {
+                if (ch.size() < Long.BYTES + expected) return Optional.empty();
+                ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+                while (header.hasRemaining()) {
+                    if (ch.read(header) < 0) return Optional.empty();
+                }
+                if (header.flip().getLong() != generation) return Optional.empty();
+                ByteBuffer target = index.vectorBytes.duplicate();
+                target.clear().limit((int) expected);
+                while (target.hasRemaining()) {
+                    if (ch.read(target) < 0) return Optional.empty();
+                }
+            }
+            return Optional.of(index);
+        }
+    }
+}
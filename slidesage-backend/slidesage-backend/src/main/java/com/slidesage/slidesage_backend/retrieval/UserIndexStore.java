@@ -0,0 +1,348 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+import com.slidesage.slidesage_backend.events.FileEvent;
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.FileTextProjection;
+import com.slidesage.slidesage_backend.files.TextChunker;
+import com.slidesage.slidesage_backend.files.TextStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user {@link HnswIndex}es, loaded lazily from {@code retrieval.index-dir}, so nothing is rebuilt at startup.
+ * <p>
+ * At most {@code retrieval.max-loaded-indexes} stay in memory (least recently used are dropped, after
+ * being written out if dirty; their direct buffers go with the next GC). Updates mark an index dirty and
+ * a scheduled flush writes it every {@code retrieval.persist-delay-ms}, so a burst of uploads costs one
+ * write per user. An index whose tombstones exceed {@code retrieval.compact-threshold} of its nodes is
+ * rebuilt from its live chunks. All changes to one user's index, and its loading and eviction, are
+ * serialized by a striped lock; searches don't take it.
+ * <p>
+ * The files on disk are only a cache of this instance's work: on load, an index is reconciled with the
+ * user's READY files in the database, so a missing or unreadable index, or files extracted before a
+ * deploy or on another instance, are (re)indexed from the stored text. While an index is loaded,
+ * changes made elsewhere arrive as relayed {@link FileEvent}s.
+ */
+@Component
+public class UserIndexStore {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIndexStore.class);
+
+    private static final int LOCK_STRIPES = 64;
+    // Below this many tombstones a rebuild isn't worth it, whatever the ratio
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 256;
+
+    private final Embedder embedder;
+    private final FileRepository fileRepository;
+    private final Path indexDir;
+    private final int chunkChars;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int maxLoaded;
+    private final double compactThreshold;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LinkedHashMap<UUID, HnswIndex> loaded = new LinkedHashMap<>(16, 0.75f, true); // access order
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final ExecutorService indexer = Executors.newVirtualThreadPerTaskExecutor();
+    // Latest submitted task per file; an older task that finishes later must not overwrite its text
+    private final Map<UUID, Long> latestTask = new ConcurrentHashMap<>();
+    private final AtomicLong taskSequence = new AtomicLong();
+
+    public UserIndexStore(Embedder embedder,
+                          FileRepository fileRepository,
+                          @Value("${retrieval.index-dir:data/retrieval}") String indexDir,
+                          @Value("${retrieval.chunk-chars:1200}") int chunkChars,
+                          @Value("${retrieval.hnsw.m:16}") int m,
+                          @Value("${retrieval.hnsw.ef-construction:100}") int efConstruction,
+                          @Value("${retrieval.hnsw.ef-search:64}") int efSearch,
+                          @Value("${retrieval.max-loaded-indexes:200}") int maxLoaded,
+                          @Value("${retrieval.compact-threshold:0.3}") double compactThreshold) {
+        this.embedder = embedder;
+        this.fileRepository = fileRepository;
+        this.indexDir = Path.of(indexDir);
+        this.chunkChars = chunkChars;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.maxLoaded = Math.max(1, maxLoaded);
+        this.compactThreshold = compactThreshold;
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    public int chunkChars() {
+        return chunkChars;
+    }
+
+    /**
+     * Replaces the chunks of one file in its owner's index in the background.
+     * Called whenever extraction completes; when calls for the same file overlap, the last one wins.
+     */
+    public void indexFileAsync(UUID userId, UUID fileId, String text) {
+        long task = taskSequence.incrementAndGet();
+        latestTask.put(fileId, task);
+        indexer.submit(() -> {
+            try {
+                indexFile(userId, fileId, text, task);
+            } catch (Exception e) {
+                log.warn("Indexing file {} failed", fileId, e);
+            } finally {
+                latestTask.remove(fileId, task);
+            }
+        });
+    }
+
+    /** Another instance changed a file's text: refresh it here too if its owner's index is loaded. */
+    @EventListener
+    public void onFileEvent(FileEvent event) {
+        if (event.isLocal() || event.kind() != FileEvent.Kind.TEXT) return;
+        if (cached(event.userId()) == null) return; // reconciled when it is loaded
+
+        // Anything but READY text leaves the file out of the index
+        String text = event.status() == TextStatus.READY
+                ? storedText(event.userId(), event.fileId()).orElse(null)
+                : null;
+        indexFileAsync(event.userId(), event.fileId(), text);
+    }
+
+    private void indexFile(UUID userId, UUID fileId, String text, long task) {
+        // Embed outside the lock; only the swap of the file's chunks has to be atomic
+        List<float[]> vectors = embedChunks(text);
+
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            if (latestTask.getOrDefault(fileId, task) != task) return; // a newer text is on its way
+            HnswIndex index = loadedIndex(userId);
+            replaceFile(index, fileId, vectors);
+            compactIfNeeded(userId, index);
+            dirty.add(userId);
+        } finally {
+            lock.unlock();
+        }
+        evictOverflow();
+    }
+
+    public List<HnswIndex.Hit> search(UUID userId, String query, int k) {
+        return indexFor(userId).search(embedder.embed(query), k, efSearch);
+    }
+
+    /** Writes every index changed since the last flush. */
+    @Scheduled(fixedDelayString = "${retrieval.persist-delay-ms:5000}")
+    public void flushDirty() {
+        for (UUID userId : List.copyOf(dirty)) {
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                HnswIndex index = cached(userId);
+                if (index != null) {
+                    flush(userId, index);
+                } else {
+                    dirty.remove(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private HnswIndex indexFor(UUID userId) {
+        HnswIndex index = cached(userId);
+        if (index != null) return index;
+
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            index = loadedIndex(userId);
+        } finally {
+            lock.unlock();
+        }
+        evictOverflow();
+        return index;
+    }
+
+    // Caller holds the user's lock, so the index is read from disk at most once
+    private HnswIndex loadedIndex(UUID userId) {
+        HnswIndex index = cached(userId);
+        if (index != null) return index;
+
+        try {
+            index = HnswIndex.readFrom(dirOf(userId), embedder.id()).orElseGet(this::newIndex);
+        } catch (IOException e) {
+            log.warn("Discarding unreadable index for user {}", userId, e);
+            index = newIndex();
+        }
+        if (reconcile(userId, index)) dirty.add(userId);
+        put(userId, index);
+        return index;
+    }
+
+    /**
+     * Brings a freshly loaded index in line with the user's READY files: drops files that are gone and
+     * indexes those it is missing from their stored text. Files already present are trusted, since
+     * every later change to them is indexed through {@link #indexFileAsync} or a relayed event.
+     */
+    private boolean reconcile(UUID userId, HnswIndex index) {
+        Set<UUID> ready = new HashSet<>(fileRepository.findReadyIdsByUserId(userId));
+        Set<UUID> indexed = index.fileIds();
+        boolean changed = false;
+
+        for (UUID fileId : indexed) {
+            if (ready.contains(fileId)) continue;
+            index.removeFile(fileId);
+            changed = true;
+        }
+        int added = 0;
+        for (UUID fileId : ready) {
+            if (indexed.contains(fileId)) continue;
+            // One file's text at a time, so a large library isn't held in memory at once
+            Optional<String> text = storedText(userId, fileId);
+            if (text.isEmpty()) continue;
+            replaceFile(index, fileId, embedChunks(text.get()));
+            added++;
+            changed = true;
+        }
+        if (added > 0) log.info("Indexed {} missing files for user {} from stored text", added, userId);
+        return changed;
+    }
+
+    private Optional<String> storedText(UUID userId, UUID fileId) {
+        return fileRepository.findAllByIdInAndUserId(List.of(fileId), userId).stream()
+                .findFirst()
+                .map(FileTextProjection::getExtractedText);
+    }
+
+    private List<float[]> embedChunks(String text) {
+        List<String> chunks = TextChunker.chunk(text, chunkChars);
+        List<float[]> vectors = new ArrayList<>(chunks.size());
+        for (String chunk : chunks) vectors.add(embedder.embed(chunk));
+        return vectors;
+    }
+
+    private static void replaceFile(HnswIndex index, UUID fileId, List<float[]> vectors) {
+        index.removeFile(fileId);
+        for (int i = 0; i < vectors.size(); i++) {
+            index.add(fileId, i, vectors.get(i));
+        }
+    }
+
+    // Caller holds the user's lock
+    private void compactIfNeeded(UUID userId, HnswIndex index) {
+        int tombstones = index.tombstones();
+        if (tombstones < MIN_TOMBSTONES_TO_COMPACT) return;
+        if (tombstones < compactThreshold * (index.size() + tombstones)) return;
+
+        long start = System.nanoTime();
+        put(userId, index.compacted());
+        log.info("Compacted index for user {}: dropped {} tombstones in {} ms",
+                userId, tombstones, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Drops least recently used indexes beyond the cap. Runs without holding any user lock, since it
+     * takes the evicted user's; the index stays visible until it has been flushed, so nobody reloads a
+     * stale copy from disk in between.
+     */
+    private void evictOverflow() {
+        while (true) {
+            UUID userId;
+            HnswIndex index;
+            cacheLock.lock();
+            try {
+                if (loaded.size() <= maxLoaded) return;
+                Map.Entry<UUID, HnswIndex> eldest = loaded.entrySet().iterator().next();
+                userId = eldest.getKey();
+                index = eldest.getValue();
+            } finally {
+                cacheLock.unlock();
+            }
+
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                // Keep it (over the cap) rather than lose changes; the next flush or eviction retries
+                if (!flush(userId, index)) return;
+                cacheLock.lock();
+                try {
+                    loaded.remove(userId, index);
+                } finally {
+                    cacheLock.unlock();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the user's lock. A failed write leaves the index dirty for the next flush.
+    private boolean flush(UUID userId, HnswIndex index) {
+        if (!dirty.remove(userId)) return true;
+        try {
+            index.writeTo(dirOf(userId));
+            return true;
+        } catch (IOException e) {
+            dirty.add(userId);
+            log.warn("Failed to persist index for user {}", userId, e);
+            return false;
+        }
+    }
+
+    private HnswIndex cached(UUID userId) {
+        cacheLock.lock();
+        try {
+            return loaded.get(userId);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void put(UUID userId, HnswIndex index) {
+        cacheLock.lock();
+        try {
+            loaded.put(userId, index);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private HnswIndex newIndex() {
+        return new HnswIndex(embedder.id(), embedder.dimension(), m, efConstruction);
+    }
+
+    private Path dirOf(UUID userId) {
+        return indexDir.resolve(userId.toString());
+    }
+
+    private ReentrantLock lockFor(UUID userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        indexer.close();
+        flushDirty();
+    }
+}
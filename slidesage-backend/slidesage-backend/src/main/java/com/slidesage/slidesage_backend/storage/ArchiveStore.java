@@ -0,0 +1,74 @@
+package com.slidesage.slidesage_backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed originals on the local filesystem under {@code storage.archive-dir},
+ * fanned out by the first two characters of the file id ({@code ab/ab12...pdf.gz}).
+ * Only usable by a single instance unless the directory is on a shared volume.
+ */
+@Component
+public class ArchiveStore {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path root;
+
+    public ArchiveStore(@Value("${storage.archive-dir:data/archive}") String archiveDir) {
+        this.root = Path.of(archiveDir);
+    }
+
+    /**
+     * Compresses {@code data} into the archive and returns the compressed size. The file is synced and
+     * moved into place before this returns, so the caller may drop the database copy afterwards.
+     */
+    public long write(UUID id, byte[] data) throws IOException {
+        Path target = pathFor(id);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(ch), BUFFER_BYTES);
+            gzip.write(data);
+            gzip.finish();
+            ch.force(false);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(target);
+    }
+
+    /** Decompressing stream over an archived original; the caller closes it. */
+    public InputStream open(UUID id) throws IOException {
+        return new GZIPInputStream(Files.newInputStream(pathFor(id)), BUFFER_BYTES);
+    }
+
+    public byte[] read(UUID id) throws IOException {
+        try (InputStream in = open(id)) {
+            return in.readAllBytes();
+        }
+    }
+
+    public void delete(UUID id) throws IOException {
+        Files.deleteIfExists(pathFor(id));
+    }
+
+    private Path pathFor(UUID id) {
+        String name = id.toString();
+        return root.resolve(name.substring(0, 2)).resolve(name + ".pdf.gz");
+    }
+}
@@ -0,0 +1,57 @@
+package com.slidesage.slidesage_backend.storage;
+
+import com.slidesage.slidesage_backend.files.FileRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects file accesses in memory and writes {@code lastAccessedAt} in batches, so reads don't turn
+ * into row updates. Timestamps are only as precise as the flush interval, which is plenty for tiering.
+ */
+@Component
+public class FileAccessTracker {
+
+    private static final int FLUSH_BATCH = 500;
+
+    private final FileRepository fileRepository;
+    private final Set<UUID> touched = ConcurrentHashMap.newKeySet();
+
+    public FileAccessTracker(FileRepository fileRepository) {
+        this.fileRepository = fileRepository;
+    }
+
+    public void touch(UUID fileId) {
+        touched.add(fileId);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.access-flush-ms:60000}")
+    public void flush() {
+        if (touched.isEmpty()) return;
+        Instant now = Instant.now();
+
+        List<UUID> batch = new ArrayList<>(FLUSH_BATCH);
+        for (Iterator<UUID> it = touched.iterator(); it.hasNext(); ) {
+            batch.add(it.next());
+            it.remove();
+            if (batch.size() == FLUSH_BATCH) {
+                fileRepository.touch(batch, now);
+                batch = new ArrayList<>(FLUSH_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) fileRepository.touch(batch, now);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
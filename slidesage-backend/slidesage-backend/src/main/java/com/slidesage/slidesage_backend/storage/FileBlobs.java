@@ -0,0 +1,121 @@
+package com.slidesage.slidesage_backend.storage;
+
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.StorageTier;
+import com.slidesage.slidesage_backend.files.exception.FileNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Original PDF bytes regardless of tier. User-facing reads ({@link #load}) move an archived file back
+ * into the {@code files} row; batch readers use {@link #peek} so a full pass doesn't warm everything up.
+ * Moves between tiers of the same file are serialized by a striped lock.
+ */
+@Component
+public class FileBlobs {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileRepository fileRepository;
+    private final ArchiveStore archiveStore;
+    private final Timer rehydrateTimer;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public FileBlobs(FileRepository fileRepository, ArchiveStore archiveStore, MeterRegistry meterRegistry) {
+        this.fileRepository = fileRepository;
+        this.archiveStore = archiveStore;
+        this.rehydrateTimer = Timer.builder("storage.rehydrate")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    /** Bytes for a user access; an archived original is rehydrated into the hot tier first. */
+    public byte[] load(UUID id) {
+        StorageTier tier = tierOf(id);
+        if (tier == StorageTier.HOT) {
+            byte[] data = fileRepository.findFileDataById(id).orElse(null);
+            if (data != null) return data;
+            // archived between the two reads
+        }
+        return rehydrate(id);
+    }
+
+    /** Bytes without changing the file's tier. */
+    public byte[] peek(UUID id) {
+        if (tierOf(id) == StorageTier.HOT) {
+            byte[] data = fileRepository.findFileDataById(id).orElse(null);
+            if (data != null) return data;
+        }
+        try {
+            return archiveStore.read(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived file " + id, e);
+        }
+    }
+
+    /** Moves a hot file's bytes into the archive; false if it was no longer hot. */
+    public boolean archive(UUID id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            byte[] data = fileRepository.findFileDataById(id).orElse(null);
+            if (data == null) return false;
+
+            // Archive first, then drop the row's copy: a crash in between leaves a stray archive, never a lost file
+            long archivedBytes = archiveStore.write(id, data);
+            if (fileRepository.markArchived(id, archivedBytes) == 0) {
+                archiveStore.delete(id);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive file " + id, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Timer rehydrateTimer() {
+        return rehydrateTimer;
+    }
+
+    private byte[] rehydrate(UUID id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            if (tierOf(id) == StorageTier.HOT) {
+                // another caller rehydrated it while we waited
+                return fileRepository.findFileDataById(id).orElseThrow(() -> new FileNotFoundException(id));
+            }
+
+            byte[] data = archiveStore.read(id);
+            if (fileRepository.restoreFromArchive(id, data, Instant.now()) > 0) {
+                archiveStore.delete(id);
+            }
+            rehydrateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rehydrate archived file " + id, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StorageTier tierOf(UUID id) {
+        return fileRepository.findStorageTierById(id).orElseThrow(() -> new FileNotFoundException(id));
+    }
+
+    private ReentrantLock lockFor(UUID id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+}
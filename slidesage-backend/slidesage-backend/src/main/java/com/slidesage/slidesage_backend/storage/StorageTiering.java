@@ -0,0 +1,144 @@
+package com.slidesage.slidesage_backend.storage;
+
+import com.slidesage.slidesage_backend.files.FileRepository;
+import com.slidesage.slidesage_backend.files.StorageTier;
+import com.slidesage.slidesage_backend.files.TierStatsProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves originals that nobody has opened for {@code storage.tiering.cold-after-days} into the
+ * {@link ArchiveStore}. Metadata, extracted text and summaries stay in the row, so listings, details,
+ * /ask and quizzes never notice; only reading the PDF itself rehydrates it.
+ * <p>
+ * Off unless {@code storage.tiering.enabled=true}; the archive lives on the local filesystem.
+ * Tier sizes and rehydration latency are reported on the {@code tiering} actuator endpoint.
+ */
+@Component
+public class StorageTiering {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageTiering.class);
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+    private static final int BATCH = 100;
+
+    private final FileRepository fileRepository;
+    private final FileBlobs fileBlobs;
+    private final boolean enabled;
+    private final Duration coldAfter;
+    private final int maxFilesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter archived;
+    private volatile Instant lastRunAt;
+    private volatile long lastRunArchived;
+
+    public StorageTiering(FileRepository fileRepository,
+                          FileBlobs fileBlobs,
+                          MeterRegistry meterRegistry,
+                          @Value("${storage.tiering.enabled:false}") boolean enabled,
+                          @Value("${storage.tiering.cold-after-days:7}") long coldAfterDays,
+                          @Value("${storage.tiering.max-files-per-run:1000}") int maxFilesPerRun) {
+        this.fileRepository = fileRepository;
+        this.fileBlobs = fileBlobs;
+        this.enabled = enabled;
+        this.coldAfter = Duration.ofDays(coldAfterDays);
+        this.maxFilesPerRun = maxFilesPerRun;
+        this.archived = Counter.builder("storage.archived").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${storage.tiering.initial-delay-ms:600000}",
+               fixedDelayString = "${storage.tiering.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (enabled) start();
+    }
+
+    /** Runs one pass in the background, so it never holds up the shared scheduler thread. */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread.ofPlatform().name("storage-tiering").daemon().start(() -> {
+            try {
+                runOnce();
+            } catch (Exception e) {
+                log.error("Storage tiering pass failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void runOnce() {
+        Instant cutoff = Instant.now().minus(coldAfter);
+        UUID after = FIRST_KEY;
+        long moved = 0;
+        int seen = 0;
+
+        while (seen < maxFilesPerRun) {
+            List<UUID> cold = fileRepository.findColdFilesAfter(after, cutoff, Limit.of(Math.min(BATCH, maxFilesPerRun - seen)));
+            if (cold.isEmpty()) break;
+            for (UUID id : cold) {
+                try {
+                    if (fileBlobs.archive(id)) moved++;
+                } catch (Exception e) {
+                    log.warn("Could not archive file {}", id, e);
+                }
+            }
+            seen += cold.size();
+            after = cold.get(cold.size() - 1);
+        }
+
+        archived.increment(moved);
+        lastRunAt = Instant.now();
+        lastRunArchived = moved;
+        if (moved > 0) log.info("Storage tiering archived {} files not accessed since {}", moved, cutoff);
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> tiers = new LinkedHashMap<>();
+        for (StorageTier tier : StorageTier.values()) {
+            tiers.put(tier.name().toLowerCase(), Map.of("files", 0L, "originalBytes", 0L, "storedBytes", 0L));
+        }
+        for (TierStatsProjection s : fileRepository.tierStats()) {
+            // Hot rows store the original; archived ones store the compressed copy on disk
+            long stored = s.getTier() == StorageTier.ARCHIVED ? s.getArchivedBytes() : s.getOriginalBytes();
+            tiers.put(s.getTier().name().toLowerCase(),
+                    Map.of("files", s.getFiles(), "originalBytes", s.getOriginalBytes(), "storedBytes", stored));
+        }
+
+        Timer rehydrate = fileBlobs.rehydrateTimer();
+        Map<String, Object> rehydration = new LinkedHashMap<>();
+        rehydration.put("count", rehydrate.count());
+        rehydration.put("meanMs", rehydrate.mean(TimeUnit.MILLISECONDS));
+        rehydration.put("maxMs", rehydrate.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile p : rehydrate.takeSnapshot().percentileValues()) {
+            rehydration.put("p" + Math.round(p.percentile() * 100) + "Ms", p.value(TimeUnit.MILLISECONDS));
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        out.put("running", running.get());
+        out.put("coldAfterDays", coldAfter.toDays());
+        out.put("lastRunAt", lastRunAt);
+        out.put("lastRunArchived", lastRunArchived);
+        out.put("tiers", tiers);
+        out.put("rehydration", rehydration);
+        return out;
+    }
+}
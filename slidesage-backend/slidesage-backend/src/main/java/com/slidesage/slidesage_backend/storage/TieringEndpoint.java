@@ -0,0 +1,34 @@
+package com.slidesage.slidesage_backend.storage;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/tiering}: file count and bytes per storage tier plus rehydration latency.
+ * {@code POST /actuator/tiering} starts an archiving pass now.
+ */
+@Component
+@Endpoint(id = "tiering")
+public class TieringEndpoint {
+
+    private final StorageTiering tiering;
+
+    public TieringEndpoint(StorageTiering tiering) {
+        this.tiering = tiering;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        return tiering.report();
+    }
+
+    @WriteOperation
+    public Map<String, Object> run() {
+        tiering.start();
+        return tiering.report();
+    }
+}
@@ -0,0 +1,132 @@
+package com.slidesage.slidesage_backend.files;
+
+import com.slidesage.slidesage_backend.events.FileEvent;
+import com.slidesage.slidesage_backend.quiz.QuizService;
+import com.slidesage.slidesage_backend.retrieval.UserIndexStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FileServiceUploadTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void removesRowWhenInsertCommitsAfterExtractionFailed() {
+        UUID userId = UUID.randomUUID();
+        UUID fileId = UUID.randomUUID();
+        CountDownLatch insertStarted = new CountDownLatch(1);
+
+        FileRepository repository = mock(FileRepository.class);
+        FileEntity saved = mock(FileEntity.class);
+        when(saved.getId()).thenReturn(fileId);
+        when(repository.save(any())).thenAnswer(inv -> {
+            insertStarted.countDown();
+            // JDBC doesn't react to the cancellation interrupt; the insert finishes and commits anyway
+            sleepUninterruptibly(300);
+            return saved;
+        });
+
+        PdfTextExtractor extractor = mock(PdfTextExtractor.class);
+        when(extractor.extract(any())).thenAnswer(inv -> {
+            insertStarted.await();
+            throw new IllegalStateException("corrupt PDF");
+        });
+
+        FileVersions versions = mock(FileVersions.class);
+        FileService service = new FileService(repository, prompt -> "", mock(QuizService.class),
+                mock(UserIndexStore.class), versions, extractor, executor,
+                new TransactionTemplate(new NoOpTransactionManager()), 10);
+
+        MockMultipartFile upload = new MockMultipartFile("file", "slides.pdf", "application/pdf", new byte[]{1, 2, 3});
+        assertThatThrownBy(() -> service.saveAndExtract(upload, userId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("corrupt PDF");
+
+        verify(repository).deleteById(fileId);
+        verify(versions).fileChanged(userId, fileId, FileEvent.Kind.TEXT, TextStatus.ERROR);
+    }
+
+    @Test
+    void removesRowWhenRecordingTheResultFails() {
+        UUID userId = UUID.randomUUID();
+        UUID fileId = UUID.randomUUID();
+
+        FileRepository repository = mock(FileRepository.class);
+        FileEntity saved = mock(FileEntity.class);
+        when(saved.getId()).thenReturn(fileId);
+        when(repository.save(any())).thenReturn(saved);
+        when(repository.completeExtraction(any(), any(), any(), any(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        PdfTextExtractor extractor = mock(PdfTextExtractor.class);
+        when(extractor.extract(any())).thenReturn("slide text");
+
+        FileVersions versions = mock(FileVersions.class);
+        UserIndexStore indexStore = mock(UserIndexStore.class);
+        FileService service = new FileService(repository, prompt -> "", mock(QuizService.class),
+                indexStore, versions, extractor, executor,
+                new TransactionTemplate(new NoOpTransactionManager()), 10);
+
+        MockMultipartFile upload = new MockMultipartFile("file", "slides.pdf", "application/pdf", new byte[]{1, 2, 3});
+        assertThatThrownBy(() -> service.saveAndExtract(upload, userId))
+                .hasMessage("connection reset");
+
+        // Not left PENDING: the row is gone and pollers are told
+        verify(repository).deleteById(fileId);
+        verify(versions).fileChanged(userId, fileId, FileEvent.Kind.TEXT, TextStatus.ERROR);
+        verifyNoInteractions(indexStore);
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long left;
+        while ((left = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    // Runs transaction synchronizations (afterCommit) without a database
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
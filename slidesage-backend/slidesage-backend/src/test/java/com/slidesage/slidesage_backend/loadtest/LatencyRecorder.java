@@ -0,0 +1,129 @@
+package com.slidesage.slidesage_backend.loadtest;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-operation latencies and turns them into a JSON report that can be diffed between builds.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> samples = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    // First sample per operation: the cold-start cost (e.g. the first PDF extraction after boot)
+    private final Map<String, Long> first = new ConcurrentHashMap<>();
+
+    public void record(String operation, long nanos) {
+        first.putIfAbsent(operation, nanos);
+        samples.computeIfAbsent(operation, k -> new ConcurrentLinkedQueue<>()).add(nanos);
+    }
+
+    public void error(String operation) {
+        errors.computeIfAbsent(operation, k -> new LongAdder()).increment();
+    }
+
+    public JSONObject report(LoadTestConfig config, long wallNanos) {
+        double wallSeconds = wallNanos / 1e9;
+        JSONObject ops = new JSONObject();
+
+        Set<String> names = new TreeSet<>(samples.keySet());
+        names.addAll(errors.keySet());
+
+        for (String op : names) {
+            long[] sorted = samples.getOrDefault(op, new ConcurrentLinkedQueue<>())
+                    .stream().mapToLong(Long::longValue).sorted().toArray();
+            long errorCount = errors.containsKey(op) ? errors.get(op).sum() : 0;
+
+            JSONObject stats = new JSONObject()
+                    .put("count", sorted.length)
+                    .put("errors", errorCount)
+                    .put("throughputPerSec", round(sorted.length / wallSeconds))
+                    .put("firstMs", round(toMs(first.getOrDefault(op, 0L))))
+                    .put("meanMs", round(toMs(Arrays.stream(sorted).average().orElse(0))))
+                    .put("p50Ms", round(toMs(percentile(sorted, 0.50))))
+                    .put("p90Ms", round(toMs(percentile(sorted, 0.90))))
+                    .put("p99Ms", round(toMs(percentile(sorted, 0.99))))
+                    .put("maxMs", round(toMs(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+            ops.put(op, stats);
+        }
+
+        return new JSONObject()
+                .put("label", config.label())
+                .put("finishedAt", Instant.now().toString())
+                .put("wallSeconds", round(wallSeconds))
+                .put("config", config.toJson())
+                .put("operations", ops);
+    }
+
+    /**
+     * Writes the report and, if a baseline is configured, prints the p50/p99/throughput deltas against it.
+     */
+    public Path write(JSONObject report, LoadTestConfig config) throws IOException {
+        Path dir = Path.of(config.reportDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve(config.label() + "-" + System.currentTimeMillis() + ".json");
+        Files.writeString(file, report.toString(2));
+
+        System.out.println("Load-test report written to " + file.toAbsolutePath());
+        printTable(report);
+
+        if (!config.baselineReport().isBlank()) {
+            JSONObject baseline = new JSONObject(Files.readString(Path.of(config.baselineReport())));
+            printDelta(baseline, report);
+        }
+        return file;
+    }
+
+    private static void printTable(JSONObject report) {
+        JSONObject ops = report.getJSONObject("operations");
+        System.out.printf("%-10s %8s %7s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "ops/s", "first ms", "p50 ms", "p99 ms", "max ms");
+        for (String op : new TreeSet<>(ops.keySet())) {
+            JSONObject s = ops.getJSONObject(op);
+            System.out.printf("%-10s %8d %7d %10.2f %10.1f %10.1f %10.1f %10.1f%n", op,
+                    s.getLong("count"), s.getLong("errors"), s.getDouble("throughputPerSec"),
+                    s.getDouble("firstMs"), s.getDouble("p50Ms"), s.getDouble("p99Ms"), s.getDouble("maxMs"));
+        }
+    }
+
+    private static void printDelta(JSONObject baseline, JSONObject current) {
+        System.out.println("Delta vs baseline '" + baseline.optString("label") + "' (negative latency = faster):");
+        JSONObject base = baseline.getJSONObject("operations");
+        JSONObject cur = current.getJSONObject("operations");
+        for (String op : new TreeSet<>(cur.keySet())) {
+            if (!base.has(op)) continue;
+            JSONObject b = base.getJSONObject(op);
+            JSONObject c = cur.getJSONObject(op);
+            System.out.printf("%-10s first %+8.1f ms  p50 %+8.1f ms  p99 %+8.1f ms  ops/s %+8.2f%n", op,
+                    c.optDouble("firstMs", 0) - b.optDouble("firstMs", 0),
+                    c.getDouble("p50Ms") - b.getDouble("p50Ms"),
+                    c.getDouble("p99Ms") - b.getDouble("p99Ms"),
+                    c.getDouble("throughputPerSec") - b.getDouble("throughputPerSec"));
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    private static double toMs(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
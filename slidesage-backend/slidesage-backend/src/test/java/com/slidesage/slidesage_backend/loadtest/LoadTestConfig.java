@@ -0,0 +1,73 @@
+package com.slidesage.slidesage_backend.loadtest;
+
+import org.json.JSONObject;
+
+/**
+ * Load-test settings, read from -Dloadtest.* system properties so they can be passed straight through Maven.
+ */
+public record LoadTestConfig(
+        String label,
+        String targetUrl,     // run against an already running instance instead of booting one
+        String dbUrl,         // Postgres JDBC url; empty means embedded H2
+        String dbUser,
+        String dbPassword,
+        double sessionsPerSecond,
+        int durationSeconds,
+        int filesPerSession,
+        int corpusSize,
+        int pagesPerPdf,
+        long llmLatencyMs,
+        long llmJitterMs,
+        String virtualThreads, // "true"/"false" for spring.threads.virtual.enabled; empty keeps the app default
+        int tomcatMaxThreads,
+        boolean pdfboxWarmup,
+        String reportDir,
+        String baselineReport // previous report to print deltas against
+) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                prop("label", "local"),
+                prop("target.url", ""),
+                prop("db.url", ""),
+                prop("db.user", "postgres"),
+                prop("db.password", "postgres"),
+                Double.parseDouble(prop("rate", "2")),
+                Integer.parseInt(prop("duration", "30")),
+                Integer.parseInt(prop("files-per-session", "3")),
+                Integer.parseInt(prop("corpus.size", "20")),
+                Integer.parseInt(prop("corpus.pages", "8")),
+                Long.parseLong(prop("llm.latency-ms", "800")),
+                Long.parseLong(prop("llm.jitter-ms", "200")),
+                prop("virtual-threads", ""),
+                Integer.parseInt(prop("tomcat.max-threads", "200")),
+                Boolean.parseBoolean(prop("pdfbox-warmup", "true")),
+                prop("report.dir", "target/loadtest"),
+                prop("baseline", "")
+        );
+    }
+
+    public boolean bootsApp() {
+        return targetUrl.isBlank();
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("targetUrl", bootsApp() ? "embedded" : targetUrl)
+                .put("database", dbUrl.isBlank() ? "h2" : dbUrl)
+                .put("sessionsPerSecond", sessionsPerSecond)
+                .put("durationSeconds", durationSeconds)
+                .put("filesPerSession", filesPerSession)
+                .put("corpusSize", corpusSize)
+                .put("pagesPerPdf", pagesPerPdf)
+                .put("llmLatencyMs", llmLatencyMs)
+                .put("llmJitterMs", llmJitterMs)
+                .put("virtualThreads", virtualThreads.isBlank() ? "default" : virtualThreads)
+                .put("tomcatMaxThreads", tomcatMaxThreads)
+                .put("pdfboxWarmup", pdfboxWarmup);
+    }
+
+    private static String prop(String key, String def) {
+        return System.getProperty("loadtest." + key, def);
+    }
+}
@@ -0,0 +1,150 @@
+package com.slidesage.slidesage_backend.loadtest;
+
+import com.slidesage.slidesage_backend.SlidesageBackendApplication;
+import org.json.JSONObject;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entry point of the load-test harness (see the "loadtest" Maven profile).
+ * <p>
+ * Boots the backend against H2 or the Postgres given in -Dloadtest.db.url, with Gemini pointed at
+ * {@link StubGeminiServer}, then starts scripted {@link UserSession}s at a fixed rate for the configured
+ * duration and writes a latency/throughput report. With -Dloadtest.target.url it drives an already
+ * running instance instead.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Load-test config: " + config.toJson());
+
+        SyntheticPdfCorpus corpus = SyntheticPdfCorpus.generate(config.corpusSize(), config.pagesPerPdf(), 42L);
+
+        try (StubGeminiServer stub = new StubGeminiServer(config.llmLatencyMs(), config.llmJitterMs()).start()) {
+            ConfigurableApplicationContext app = config.bootsApp() ? boot(config, stub) : null;
+            try {
+                String baseUrl = app != null
+                        ? "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort()
+                        : config.targetUrl();
+
+                long readyMillis = awaitHealthy(baseUrl);
+                System.out.println("Target healthy after " + readyMillis + " ms");
+
+                LatencyRecorder recorder = new LatencyRecorder();
+                long wallNanos = drive(config, baseUrl, corpus, recorder);
+
+                JSONObject report = recorder.report(config, wallNanos);
+                report.put("llmRequests", stub.requestCount());
+                report.put("readyAfterMs", readyMillis);
+                recorder.write(report, config);
+            } finally {
+                if (app != null) app.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(LoadTestConfig config, StubGeminiServer stub) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--gemini.api.url=" + stub.endpoint(),
+                "--gemini.api.key=loadtest",
+                "--jwt.secret=loadtest-secret-loadtest-secret-loadtest-secret-0123456789",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.servlet.multipart.max-file-size=50MB",
+                "--spring.servlet.multipart.max-request-size=50MB",
+                // The embedded app is the only instance, so its ETags may answer 304
+                "--files.versions.single-instance=true"
+        ));
+        // Thread model under test: compare runs with -Dloadtest.virtual-threads=false and =true
+        args.add("--server.tomcat.threads.max=" + config.tomcatMaxThreads());
+        args.add("--pdfbox.warmup.enabled=" + config.pdfboxWarmup());
+        if (!config.virtualThreads().isBlank()) {
+            args.add("--spring.threads.virtual.enabled=" + config.virtualThreads());
+        }
+        if (config.dbUrl().isBlank()) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        } else {
+            args.add("--spring.datasource.url=" + config.dbUrl());
+            args.add("--spring.datasource.username=" + config.dbUser());
+            args.add("--spring.datasource.password=" + config.dbPassword());
+        }
+
+        // Command-line args win over a developer's local application.properties
+        return new SpringApplicationBuilder(SlidesageBackendApplication.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Waits until /actuator/health reports UP (e.g. PDFBox warm-up done), so the first measured
+     * upload reflects what a user hits right after the instance turns ready. Fails the run (non-zero
+     * exit) if it never does.
+     */
+    private static long awaitHealthy(String baseUrl) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (Exception e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(baseUrl + " did not report healthy within 2 minutes; no report written");
+    }
+
+    private static long drive(LoadTestConfig config, String baseUrl, SyntheticPdfCorpus corpus,
+                              LatencyRecorder recorder) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        AtomicInteger started = new AtomicInteger();
+        long periodNanos = (long) (1_000_000_000L / config.sessionsPerSecond());
+        long start = System.nanoTime();
+
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+            ticker.scheduleAtFixedRate(() -> {
+                int index = started.getAndIncrement();
+                sessions.submit(new UserSession(http, baseUrl, corpus, recorder, index, config.filesPerSession()));
+            }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+            ticker.awaitTermination(config.durationSeconds(), TimeUnit.SECONDS);
+            ticker.shutdownNow();
+            // closing the executor waits for in-flight sessions to finish
+        }
+
+        System.out.println("Sessions started: " + started.get());
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,114 @@
+package com.slidesage.slidesage_backend.loadtest;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic set of slide-like PDFs so runs of different builds upload identical input.
+ * <p>
+ * Pages use non-embedded Helvetica, like many real decks, so extracting them goes through PDFBox's
+ * font mapper. The harness builds them in the JVM that later boots the app, so they are written as raw
+ * content streams and font dictionaries: creating a {@code PDType1Font} here would run the system font
+ * scan before boot, ignore the app's {@code pdfbox.fontcache} and hide what the warm-up saves.
+ */
+public final class SyntheticPdfCorpus {
+
+    private static final String[] WORDS = {
+            "gradient", "descent", "matrix", "vector", "entropy", "kernel", "protein", "enzyme", "market",
+            "equilibrium", "theorem", "lemma", "proof", "integral", "derivative", "network", "latency",
+            "throughput", "cache", "compiler", "semantics", "photosynthesis", "mitochondria", "inflation",
+            "elasticity", "regression", "variance", "hypothesis", "sample", "lecture", "summary", "example"
+    };
+
+    private static final int LINES_PER_PAGE = 40;
+    private static final int WORDS_PER_LINE = 11;
+    private static final COSName FONT_RESOURCE = COSName.getPDFName("F1");
+
+    private final List<byte[]> documents;
+
+    private SyntheticPdfCorpus(List<byte[]> documents) {
+        this.documents = documents;
+    }
+
+    public static SyntheticPdfCorpus generate(int size, int pages, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<byte[]> docs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            docs.add(render(i, pages, random));
+        }
+        return new SyntheticPdfCorpus(docs);
+    }
+
+    public byte[] get(int index) {
+        return documents.get(Math.floorMod(index, documents.size()));
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private static byte[] render(int docIndex, int pages, Random random) throws IOException {
+        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                page.setResources(helveticaResources());
+
+                StringBuilder ops = new StringBuilder("BT\n/F1 11 Tf\n50 740 Td\n");
+                ops.append(literal("Lecture " + docIndex + " - slide " + (p + 1))).append(" Tj\n");
+                for (int l = 0; l < LINES_PER_PAGE; l++) {
+                    ops.append("0 -16 Td\n").append(literal(line(random))).append(" Tj\n");
+                }
+                ops.append("ET\n");
+
+                PDStream contents = new PDStream(doc);
+                try (OutputStream os = contents.createOutputStream(COSName.FLATE_DECODE)) {
+                    os.write(ops.toString().getBytes(StandardCharsets.US_ASCII));
+                }
+                page.setContents(contents);
+                doc.addPage(page);
+            }
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    // The dictionary PDType1Font would write for standard-14 Helvetica, without loading the font
+    private static PDResources helveticaResources() {
+        COSDictionary font = new COSDictionary();
+        font.setItem(COSName.TYPE, COSName.FONT);
+        font.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        font.setName(COSName.BASE_FONT, "Helvetica");
+        font.setItem(COSName.ENCODING, COSName.WIN_ANSI_ENCODING);
+
+        COSDictionary fonts = new COSDictionary();
+        fonts.setItem(FONT_RESOURCE, font);
+        PDResources resources = new PDResources();
+        resources.getCOSObject().setItem(COSName.FONT, fonts);
+        return resources;
+    }
+
+    private static String literal(String text) {
+        return "(" + text.replace("\\", "\\\\").replace("(", "\\(").replace(")", "\\)") + ")";
+    }
+
+    private static String line(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < WORDS_PER_LINE; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
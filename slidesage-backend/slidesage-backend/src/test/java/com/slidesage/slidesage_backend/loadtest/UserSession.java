@@ -0,0 +1,150 @@
+package com.slidesage.slidesage_backend.loadtest;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * One scripted user: register, login, upload a few PDFs, list, open each file and summarize one of them.
+ */
+public class UserSession implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final SyntheticPdfCorpus corpus;
+    private final LatencyRecorder recorder;
+    private final int sessionIndex;
+    private final int filesPerSession;
+
+    public UserSession(HttpClient http, String baseUrl, SyntheticPdfCorpus corpus, LatencyRecorder recorder,
+                       int sessionIndex, int filesPerSession) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.corpus = corpus;
+        this.recorder = recorder;
+        this.sessionIndex = sessionIndex;
+        this.filesPerSession = filesPerSession;
+    }
+
+    @Override
+    public void run() {
+        try {
+            String email = "loadtest-" + UUID.randomUUID() + "@example.com";
+            String credentials = new JSONObject().put("email", email).put("password", "loadtest-pw").toString();
+
+            timed("register", () -> send(jsonPost("/auth/register", credentials)));
+            String token = new JSONObject(timed("login", () -> send(jsonPost("/auth/login", credentials))))
+                    .getString("token");
+            String bearer = "Bearer " + token;
+
+            List<String> fileIds = new ArrayList<>();
+            for (int i = 0; i < filesPerSession; i++) {
+                byte[] pdf = corpus.get(sessionIndex * filesPerSession + i);
+                String name = "lecture-" + sessionIndex + "-" + i + ".pdf";
+                String body = timed("upload", () -> send(upload(bearer, name, pdf)));
+                fileIds.add(new JSONObject(body).getString("id"));
+            }
+
+            String list = timed("list", () -> send(get(bearer, "/api/files")));
+            if (new JSONArray(list).length() != fileIds.size()) {
+                recorder.error("list");
+            }
+
+            for (String id : fileIds) {
+                timed("detail", () -> send(get(bearer, "/api/files/" + id)));
+            }
+
+            if (!fileIds.isEmpty()) {
+                String id = fileIds.get(0);
+                timed("summary", () -> send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/files/" + id + "/summary"))
+                        .timeout(TIMEOUT)
+                        .header("Authorization", bearer)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build()));
+            }
+        } catch (SessionAbortedException e) {
+            // the failing step was already counted as an error; the rest of the script depends on it
+        }
+    }
+
+    private String timed(String operation, Supplier<HttpResponse<String>> call) {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            recorder.error(operation);
+            throw new SessionAbortedException();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (response.statusCode() / 100 != 2) {
+            recorder.error(operation);
+            throw new SessionAbortedException();
+        }
+        recorder.record(operation, elapsed);
+        return response.body();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest jsonPost(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String bearer, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Authorization", bearer)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest upload(String bearer, String filename, byte[] pdf) {
+        String boundary = "----slidesage" + UUID.randomUUID().toString().replace("-", "");
+        ByteArrayOutputStream body = new ByteArrayOutputStream(pdf.length + 512);
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n";
+        body.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(pdf);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/files"))
+                .timeout(TIMEOUT)
+                .header("Authorization", bearer)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static class SessionAbortedException extends RuntimeException {
+        SessionAbortedException() { super(null, null, false, false); }
+    }
+}
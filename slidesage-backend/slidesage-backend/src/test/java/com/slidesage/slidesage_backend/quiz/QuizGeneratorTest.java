@@ -0,0 +1,74 @@
+package com.slidesage.slidesage_backend.quiz;
+
+import com.slidesage.slidesage_backend.llm.LlmClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuizGeneratorTest {
+
+    private static final String STUB_ANSWER = """
+            ```json
+            [{"question": "What is a lemma?", "options": ["A", "B", "C", "D"], "answer": 2, "explanation": "Because."},
+             {"question": "Broken", "options": ["A"], "answer": 0}]
+            ```""";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Test
+    void sendsOneChunkPerSectionAndParsesAnswers() {
+        ConcurrentLinkedQueue<String> prompts = new ConcurrentLinkedQueue<>();
+        LlmClient stub = prompt -> {
+            prompts.add(prompt);
+            return STUB_ANSWER;
+        };
+        QuizGenerator generator = new QuizGenerator(stub, 100, 3, 2);
+
+        String text = String.join("\n\n", List.of(
+                "a".repeat(80), "b".repeat(80), "c".repeat(80), "d".repeat(80), "e".repeat(80)));
+        List<QuizGenerator.Draft> drafts = generator.generate(text, executor);
+
+        // 5 one-paragraph chunks, capped at 3 sections spread over the document (chunks 0, 1 and 3),
+        // and each prompt carries exactly one chunk
+        assertThat(prompts).hasSize(3);
+        assertThat(prompts)
+                .extracting(p -> p.substring(p.indexOf("Slides:\n") + "Slides:\n".length()))
+                .containsExactlyInAnyOrder("a".repeat(80), "b".repeat(80), "d".repeat(80));
+        // the malformed question is dropped
+        assertThat(drafts).hasSize(3);
+        assertThat(drafts.get(0).correctAnswer()).isEqualTo(2);
+        assertThat(drafts.get(0).options()).containsExactly("A", "B", "C", "D");
+    }
+
+    @Test
+    void failsWhenEverySectionFails() {
+        LlmClient stub = prompt -> { throw new IllegalStateException("upstream down"); };
+        QuizGenerator generator = new QuizGenerator(stub, 100, 3, 2);
+
+        assertThatThrownBy(() -> generator.generate("some slide text", executor))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void skipsQuestionsThatDoNotFitTheirColumns() {
+        String raw = "[{\"question\": \"" + "q".repeat(1001) + "\", \"options\": [\"A\", \"B\"], \"answer\": 0},"
+                + " {\"question\": \"Fits?\", \"options\": [\"A\", \"\"], \"answer\": 1,"
+                + " \"explanation\": \"" + "e".repeat(1500) + "\"}]";
+
+        List<QuizGenerator.Draft> drafts = QuizGenerator.parse(0, raw);
+
+        assertThat(drafts).hasSize(1);
+        assertThat(drafts.get(0).explanation()).hasSize(1000);
+        // an empty last option survives the round trip through the packed column
+        QuizQuestion stored = new QuizQuestion(UUID.randomUUID(), 0, drafts.get(0).question(),
+                drafts.get(0).options(), drafts.get(0).correctAnswer(), drafts.get(0).explanation());
+        assertThat(stored.getOptions()).containsExactly("A", "");
+    }
+}
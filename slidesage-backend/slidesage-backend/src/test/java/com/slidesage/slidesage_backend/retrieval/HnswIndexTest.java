@@ -0,0 +1,104 @@
+package com.slidesage.slidesage_backend.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+
+    private final HashingEmbedder embedder = new HashingEmbedder(128);
+
+    private static final String[] TOPICS = {
+            "photosynthesis converts light energy into chemical energy in chloroplasts",
+            "supply and demand curves determine the market equilibrium price",
+            "gradient descent minimises the loss function by following the negative gradient",
+            "mitochondria produce atp through cellular respiration",
+            "a compiler translates source code into machine code"
+    };
+
+    @Test
+    void findsRelevantChunkSurvivesReloadAndHonoursRemoval(@TempDir Path dir) throws Exception {
+        HnswIndex index = new HnswIndex(embedder.id(), embedder.dimension(), 8, 50);
+        UUID[] files = new UUID[TOPICS.length];
+        for (int i = 0; i < TOPICS.length; i++) {
+            files[i] = UUID.randomUUID();
+            // a few noisy variants per file so the graph has more than one layer to walk
+            for (int c = 0; c < 20; c++) {
+                index.add(files[i], c, embedder.embed(TOPICS[i] + " lecture part " + c));
+            }
+        }
+
+        List<HnswIndex.Hit> hits = index.search(embedder.embed("how is the market equilibrium price set"), 3, 32);
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).fileId()).isEqualTo(files[1]);
+
+        index.writeTo(dir);
+        HnswIndex reloaded = HnswIndex.readFrom(dir, embedder.id()).orElseThrow();
+        assertThat(reloaded.size()).isEqualTo(index.size());
+        assertThat(reloaded.search(embedder.embed("how is the market equilibrium price set"), 3, 32))
+                .isEqualTo(hits);
+
+        reloaded.removeFile(files[1]);
+        assertThat(reloaded.search(embedder.embed("how is the market equilibrium price set"), 5, 32))
+                .extracting(HnswIndex.Hit::fileId)
+                .doesNotContain(files[1]);
+
+        // vectors from another embedder are never mixed in
+        assertThat(HnswIndex.readFrom(dir, "other-embedder")).isEmpty();
+    }
+
+    @Test
+    void compactionDropsTombstonesAndKeepsResults() {
+        HnswIndex index = new HnswIndex(embedder.id(), embedder.dimension(), 8, 50);
+        UUID[] files = new UUID[TOPICS.length];
+        for (int i = 0; i < TOPICS.length; i++) {
+            files[i] = UUID.randomUUID();
+            for (int c = 0; c < 20; c++) {
+                index.add(files[i], c, embedder.embed(TOPICS[i] + " lecture part " + c));
+            }
+        }
+        // re-indexing the same file leaves its first version behind as tombstones
+        index.removeFile(files[3]);
+        for (int c = 0; c < 20; c++) {
+            index.add(files[3], c, embedder.embed(TOPICS[3] + " revised part " + c));
+        }
+        index.removeFile(files[0]);
+        assertThat(index.tombstones()).isEqualTo(40);
+
+        HnswIndex compacted = index.compacted();
+        assertThat(compacted.tombstones()).isZero();
+        assertThat(compacted.size()).isEqualTo(index.size());
+
+        float[] query = embedder.embed("how is the market equilibrium price set");
+        assertThat(compacted.search(query, 3, 32).get(0).fileId()).isEqualTo(files[1]);
+        assertThat(compacted.search(embedder.embed(TOPICS[0]), 10, 32))
+                .extracting(HnswIndex.Hit::fileId)
+                .doesNotContain(files[0]);
+    }
+
+    @Test
+    void rejectsGraphAndVectorsFromDifferentWrites(@TempDir Path dir) throws Exception {
+        HnswIndex index = new HnswIndex(embedder.id(), embedder.dimension(), 8, 50);
+        UUID file = UUID.randomUUID();
+        for (int c = 0; c < 10; c++) {
+            index.add(file, c, embedder.embed(TOPICS[0] + " lecture part " + c));
+        }
+        index.writeTo(dir);
+        Path oldGraph = Files.copy(dir.resolve("graph.bin"), dir.resolve("graph.old"));
+
+        index.add(file, 10, embedder.embed(TOPICS[1]));
+        index.writeTo(dir);
+        assertThat(HnswIndex.readFrom(dir, embedder.id())).isPresent();
+
+        // what a crash between the vectors move and the graph move leaves behind
+        Files.move(oldGraph, dir.resolve("graph.bin"), StandardCopyOption.REPLACE_EXISTING);
+        assertThat(HnswIndex.readFrom(dir, embedder.id())).isEmpty();
+    }
+}
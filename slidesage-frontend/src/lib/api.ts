@@ -11,7 +11,7 @@ export interface UploadResp {
 export interface FileDetailResp extends UploadResp {
   summaryStatus: "READY" | "PENDING" | "ERROR" | "NONE";
   summary: string | null;
-  quizStatus: "READY" | "PENDING" | "ERROR" | "NONE";
+  quizStatus: "READY" | "PENDING" | "EMPTY" | "ERROR" | "NONE";
   quiz: any;
 }
 
@@ -213,7 +213,8 @@ const pollForStatus = async <T extends { summaryStatus?: string; quizStatus?: st
     const data: T = await response.json();
     const status = data[statusField] as string;
     
-    if (status === 'READY' || status === 'ERROR') {
+    // EMPTY is terminal too: the job finished but produced nothing usable
+    if (status === 'READY' || status === 'EMPTY' || status === 'ERROR') {
       return data;
     }
     
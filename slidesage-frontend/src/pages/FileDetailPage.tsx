@@ -421,6 +421,20 @@ export default function FileDetailPage() {
             </div>
           )}
 
+          {fileDetails.quizStatus === 'EMPTY' && (
+            <div className="bg-gradient-to-r from-gray-50 to-slate-50 border border-gray-200 rounded-2xl p-6 shadow-lg">
+              <div className="flex items-center">
+                <div className="w-12 h-12 bg-gray-100 rounded-full flex items-center justify-center mr-4">
+                  <span className="text-2xl">📭</span>
+                </div>
+                <div>
+                  <h3 className="text-xl font-bold text-gray-800 mb-1">No Quiz Questions</h3>
+                  <p className="text-gray-700">No usable questions could be generated from this file.</p>
+                </div>
+              </div>
+            </div>
+          )}
+
           {fileDetails.quizStatus === 'ERROR' && (
             <div className="bg-gradient-to-r from-red-50 to-pink-50 border border-red-200 rounded-2xl p-6 shadow-lg">
               <div className="flex items-center">